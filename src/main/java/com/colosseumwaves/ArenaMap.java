@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+/**
+ * The Colosseum arena in LoS coordinates: x grows east and y grows south, as in the LoS tool's grid.
+ * <p>
+ * An NPC's LoS location is its south-west tile, so an NPC of size {@code s} at {@code (x, y)} covers
+ * {@code x..x+s-1} and {@code y-s+1..y}.
+ */
+final class ArenaMap
+{
+	static final int SIZE = 34;
+	static final int TILE_COUNT = SIZE * SIZE;
+
+	static final int PILLAR_SIZE = 3;
+	// North-west corner of each pillar
+	static final int[] PILLAR_X = {8, 23, 15};
+	static final int[] PILLAR_Y = {8, 8, 22};
+	static final String[] PILLAR_NAMES = {"north-west", "north-east", "south"};
+
+	// Footprint size of each LoS NPC type, indexed by type
+	private static final int[] NPC_SIZES = {1, 1, 3, 2, 3, 3, 3};
+
+	private static final boolean[] BLOCKED = new boolean[TILE_COUNT];
+
+	static
+	{
+		for (int pillar = 0; pillar < PILLAR_X.length; pillar++)
+		{
+			for (int dx = 0; dx < PILLAR_SIZE; dx++)
+			{
+				for (int dy = 0; dy < PILLAR_SIZE; dy++)
+				{
+					BLOCKED[index(PILLAR_X[pillar] + dx, PILLAR_Y[pillar] + dy)] = true;
+				}
+			}
+		}
+	}
+
+	private ArenaMap()
+	{
+	}
+
+	static int index(int x, int y)
+	{
+		return y * SIZE + x;
+	}
+
+	static boolean inBounds(int x, int y)
+	{
+		return x >= 0 && y >= 0 && x < SIZE && y < SIZE;
+	}
+
+	/**
+	 * Whether a tile is a pillar or outside the arena.
+	 */
+	static boolean isBlocked(int x, int y)
+	{
+		return !inBounds(x, y) || BLOCKED[index(x, y)];
+	}
+
+	/**
+	 * Which pillar covers a tile, or -1.
+	 */
+	static int pillarAt(int x, int y)
+	{
+		for (int pillar = 0; pillar < PILLAR_X.length; pillar++)
+		{
+			if (x >= PILLAR_X[pillar] && x < PILLAR_X[pillar] + PILLAR_SIZE
+				&& y >= PILLAR_Y[pillar] && y < PILLAR_Y[pillar] + PILLAR_SIZE)
+			{
+				return pillar;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Whether an NPC of the given size fits with its south-west tile at {@code (x, y)}.
+	 */
+	static boolean fits(int x, int y, int size)
+	{
+		for (int dx = 0; dx < size; dx++)
+		{
+			for (int dy = 0; dy < size; dy++)
+			{
+				if (isBlocked(x + dx, y - dy))
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The pillar that blocks line of sight between two tiles, or -1 if the line is clear.
+	 * <p>
+	 * Traces the line the way the game does, stepping one tile at a time along the longer axis and rounding
+	 * the other, and checks every tile strictly between the two ends.
+	 */
+	static int blockingPillar(int fromX, int fromY, int toX, int toY)
+	{
+		int dx = toX - fromX;
+		int dy = toY - fromY;
+		int steps = Math.max(Math.abs(dx), Math.abs(dy));
+		if (steps <= 1)
+		{
+			return -1;
+		}
+
+		// 16.16 fixed point, starting from the tile centres
+		int x = (fromX << 16) + 0x8000;
+		int y = (fromY << 16) + 0x8000;
+		int stepX = (dx << 16) / steps;
+		int stepY = (dy << 16) / steps;
+		for (int i = 1; i < steps; i++)
+		{
+			x += stepX;
+			y += stepY;
+			int tileX = x >> 16;
+			int tileY = y >> 16;
+			if (inBounds(tileX, tileY) && BLOCKED[index(tileX, tileY)])
+			{
+				return pillarAt(tileX, tileY);
+			}
+		}
+		return -1;
+	}
+
+	static int npcSize(int losType)
+	{
+		return losType >= 0 && losType < NPC_SIZES.length ? NPC_SIZES[losType] : 1;
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+/**
+ * Predicts where NPCs will move as they chase the player.
+ * <p>
+ * NPCs do not path-find around pillars. Each tick they take one step straight towards their target: diagonally
+ * if they can, otherwise along x, otherwise along y, and they stay put if all are blocked. So instead of distance
+ * fields, the possible steps from every tile are precomputed once per footprint size as a bitmask of the eight
+ * directions, and predicting a step is a single table lookup. The tables take {@code 3 * 34 * 34} bytes, about
+ * 3.4 KiB, and are built the first time they are used.
+ * <p>
+ * Other NPCs are not treated as obstacles, and NPCs are assumed to keep chasing until they are next to the player,
+ * even those that would stop earlier to attack from range.
+ */
+final class ArenaPathing
+{
+	private static final int MAX_NPC_SIZE = 3;
+	// Direction bits in the move tables
+	private static final int[] DIRECTION_DX = {-1, 1, 0, 0, -1, 1, -1, 1};
+	private static final int[] DIRECTION_DY = {0, 0, -1, 1, -1, -1, 1, 1};
+
+	private ArenaPathing()
+	{
+	}
+
+	/**
+	 * Builds the move tables now rather than on the first prediction.
+	 */
+	static void warmUp()
+	{
+		Tables.init();
+	}
+
+	/**
+	 * The code with its tile moved to where the NPC is predicted to be after chasing the player for a number of ticks.
+	 */
+	static int predict(int code, int playerX, int playerY, int ticks)
+	{
+		int size = ArenaMap.npcSize(SpawnCode.type(code));
+		byte[] moves = Tables.MOVES[size - 1];
+		int x = SpawnCode.x(code);
+		int y = SpawnCode.y(code);
+		if (!ArenaMap.inBounds(x, y))
+		{
+			return code;
+		}
+
+		for (int tick = 0; tick < ticks; tick++)
+		{
+			int direction = chooseStep(moves[ArenaMap.index(x, y)], x, y, size, playerX, playerY);
+			if (direction < 0)
+			{
+				break;
+			}
+			x += DIRECTION_DX[direction];
+			y += DIRECTION_DY[direction];
+		}
+		return SpawnCode.pack(x, y, SpawnCode.type(code), SpawnCode.manticoreState(code));
+	}
+
+	private static int chooseStep(int allowed, int x, int y, int size, int playerX, int playerY)
+	{
+		int east = x + size - 1;
+		int north = y - size + 1;
+		int dx = playerX < x ? -1 : playerX > east ? 1 : 0;
+		int dy = playerY < north ? -1 : playerY > y ? 1 : 0;
+
+		// Next to the player along an edge, or the player is underneath
+		if (dx == 0 && dy == 0 || dx == 0 && (playerY == north - 1 || playerY == y + 1)
+			|| dy == 0 && (playerX == x - 1 || playerX == east + 1))
+		{
+			return -1;
+		}
+
+		if (dx != 0 && dy != 0)
+		{
+			int diagonal = direction(dx, dy);
+			if ((allowed & 1 << diagonal) != 0)
+			{
+				return diagonal;
+			}
+		}
+		if (dx != 0 && (allowed & 1 << direction(dx, 0)) != 0)
+		{
+			return direction(dx, 0);
+		}
+		if (dy != 0 && (allowed & 1 << direction(0, dy)) != 0)
+		{
+			return direction(0, dy);
+		}
+		return -1;
+	}
+
+	private static int direction(int dx, int dy)
+	{
+		for (int direction = 0; direction < DIRECTION_DX.length; direction++)
+		{
+			if (DIRECTION_DX[direction] == dx && DIRECTION_DY[direction] == dy)
+			{
+				return direction;
+			}
+		}
+		return -1;
+	}
+
+	private static final class Tables
+	{
+		static final byte[][] MOVES = new byte[MAX_NPC_SIZE][];
+
+		static
+		{
+			for (int size = 1; size <= MAX_NPC_SIZE; size++)
+			{
+				byte[] moves = new byte[ArenaMap.TILE_COUNT];
+				for (int x = 0; x < ArenaMap.SIZE; x++)
+				{
+					for (int y = 0; y < ArenaMap.SIZE; y++)
+					{
+						int allowed = 0;
+						for (int direction = 0; direction < DIRECTION_DX.length; direction++)
+						{
+							int dx = DIRECTION_DX[direction];
+							int dy = DIRECTION_DY[direction];
+							// Diagonal steps can't cut the corner of a pillar
+							if (ArenaMap.fits(x + dx, y + dy, size)
+								&& (dx == 0 || dy == 0 || ArenaMap.fits(x + dx, y, size) && ArenaMap.fits(x, y + dy, size)))
+							{
+								allowed |= 1 << direction;
+							}
+						}
+						moves[ArenaMap.index(x, y)] = (byte) allowed;
+					}
+				}
+				MOVES[size - 1] = moves;
+			}
+		}
+
+		static void init()
+		{
+			// Loading the class builds the tables
+		}
+	}
+}
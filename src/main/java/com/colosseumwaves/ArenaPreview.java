@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+import net.runelite.client.ui.ColorScheme;
+
+/**
+ * A mini-map of the arena showing one capture: each NPC's footprint, manticore orbs and the player's tile.
+ * <p>
+ * The floor and pillars never change, so they are rendered once into an image shared by every preview, and painting
+ * a preview only draws the handful of NPCs on top of it.
+ */
+final class ArenaPreview extends JComponent
+{
+	static final int TILE_SIZE = 6;
+	static final int MAP_SIZE = ArenaMap.SIZE * TILE_SIZE;
+
+	private static final Color FLOOR_COLOR = new Color(58, 52, 44);
+	private static final Color GRID_COLOR = new Color(66, 60, 51);
+	private static final Color PILLAR_COLOR = new Color(120, 120, 120);
+	private static final Color PLAYER_COLOR = Color.WHITE;
+	// Indexed by LoS NPC type
+	private static final Color[] NPC_COLORS = {
+		Color.GRAY,
+		new Color(80, 200, 120),
+		new Color(230, 160, 60),
+		new Color(240, 220, 90),
+		new Color(200, 80, 200),
+		new Color(200, 90, 70),
+		new Color(90, 160, 240),
+	};
+	private static final Color[] NPC_FILL_COLORS = new Color[NPC_COLORS.length];
+	// Indexed by SpawnCode orb
+	private static final Color[] ORB_COLORS = {null, new Color(80, 140, 255), new Color(80, 220, 80), new Color(230, 60, 60)};
+
+	private static BufferedImage arenaLayer;
+
+	static
+	{
+		for (int i = 0; i < NPC_COLORS.length; i++)
+		{
+			Color color = NPC_COLORS[i];
+			NPC_FILL_COLORS[i] = new Color(color.getRed(), color.getGreen(), color.getBlue(), 150);
+		}
+	}
+
+	private int[] codes = new int[0];
+	private int player = LosUrls.NO_PLAYER;
+
+	ArenaPreview()
+	{
+		Dimension size = new Dimension(MAP_SIZE, MAP_SIZE);
+		setPreferredSize(size);
+		setMinimumSize(size);
+		setMaximumSize(new Dimension(Integer.MAX_VALUE, MAP_SIZE));
+		setOpaque(false);
+	}
+
+	/**
+	 * Shows a capture.
+	 *
+	 * @param codes the captured {@link SpawnCode}s
+	 * @param player the encoded player tile, or {@link LosUrls#NO_PLAYER}
+	 */
+	void setCapture(int[] codes, int player)
+	{
+		this.codes = codes;
+		this.player = player;
+		repaint();
+	}
+
+	@Override
+	protected void paintComponent(Graphics g)
+	{
+		int left = Math.max(0, (getWidth() - MAP_SIZE) / 2);
+		g.drawImage(arenaLayer(), left, 0, null);
+
+		Graphics2D g2 = (Graphics2D) g.create();
+		try
+		{
+			g2.translate(left, 0);
+			for (int code : codes)
+			{
+				paintNpc(g2, code);
+			}
+
+			if (player != LosUrls.NO_PLAYER)
+			{
+				g2.setColor(PLAYER_COLOR);
+				g2.fillRect(player % 256 * TILE_SIZE + 1, player / 256 * TILE_SIZE + 1, TILE_SIZE - 2, TILE_SIZE - 2);
+			}
+		}
+		finally
+		{
+			g2.dispose();
+		}
+	}
+
+	private static void paintNpc(Graphics2D g, int code)
+	{
+		int type = SpawnCode.type(code);
+		int size = ArenaMap.npcSize(type);
+		int x = SpawnCode.x(code) * TILE_SIZE;
+		// The LoS location is the south-west tile, and y grows south
+		int y = (SpawnCode.y(code) - size + 1) * TILE_SIZE;
+		int extent = size * TILE_SIZE;
+
+		int colorIndex = type < NPC_COLORS.length ? type : 0;
+		g.setColor(NPC_FILL_COLORS[colorIndex]);
+		g.fillRect(x, y, extent, extent);
+		g.setColor(NPC_COLORS[colorIndex]);
+		g.drawRect(x, y, extent - 1, extent - 1);
+
+		if (type != SpawnCode.MANTICORE)
+		{
+			return;
+		}
+
+		// Orbs in firing order along the top of the footprint, or a ring if none were seen
+		int orbSize = TILE_SIZE - 1;
+		if (SpawnCode.orb(code, 0) == SpawnCode.ORB_NONE)
+		{
+			g.setColor(Color.WHITE);
+			g.drawOval(x + 1, y + 1, orbSize, orbSize);
+			return;
+		}
+		for (int position = 0; position < 3; position++)
+		{
+			int orb = SpawnCode.orb(code, position);
+			if (orb == SpawnCode.ORB_NONE)
+			{
+				break;
+			}
+			g.setColor(ORB_COLORS[orb]);
+			g.fillOval(x + 1 + position * TILE_SIZE, y + 1, orbSize, orbSize);
+		}
+	}
+
+	private static BufferedImage arenaLayer()
+	{
+		// Only painted on the EDT, so no locking
+		if (arenaLayer == null)
+		{
+			BufferedImage image = new BufferedImage(MAP_SIZE, MAP_SIZE, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = image.createGraphics();
+			g.setColor(FLOOR_COLOR);
+			g.fillRect(0, 0, MAP_SIZE, MAP_SIZE);
+
+			g.setColor(GRID_COLOR);
+			for (int i = 1; i < ArenaMap.SIZE; i++)
+			{
+				g.drawLine(i * TILE_SIZE, 0, i * TILE_SIZE, MAP_SIZE);
+				g.drawLine(0, i * TILE_SIZE, MAP_SIZE, i * TILE_SIZE);
+			}
+
+			for (int pillar = 0; pillar < ArenaMap.PILLAR_X.length; pillar++)
+			{
+				int x = ArenaMap.PILLAR_X[pillar] * TILE_SIZE;
+				int y = ArenaMap.PILLAR_Y[pillar] * TILE_SIZE;
+				int extent = ArenaMap.PILLAR_SIZE * TILE_SIZE;
+				g.setColor(PILLAR_COLOR);
+				g.fillRect(x, y, extent, extent);
+				g.setColor(ColorScheme.DARKER_GRAY_COLOR);
+				g.drawRect(x, y, extent - 1, extent - 1);
+			}
+			g.dispose();
+			arenaLayer = image;
+		}
+		return arenaLayer;
+	}
+}
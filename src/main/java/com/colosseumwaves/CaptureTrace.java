@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Singleton;
+
+/**
+ * Timestamps each stage of capturing a wave, from the "Wave: N" message to the panel button being enabled.
+ * <p>
+ * The last {@link #CAPACITY} captures are kept in preallocated arrays, so tracing allocates nothing. Stages are
+ * stamped from the client thread and the EDT.
+ */
+@Singleton
+public class CaptureTrace
+{
+	static final int CAPACITY = 128;
+
+	enum Stage
+	{
+		WAVE_MESSAGE("message"),
+		FIRST_SPAWN("spawn"),
+		CAPTURED("capture"),
+		HANDLED("handle"),
+		URL_BUILT("url"),
+		BUTTON_ENABLED("button");
+
+		final String column;
+
+		Stage(String column)
+		{
+			this.column = column;
+		}
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	private final AtomicInteger nextId = new AtomicInteger();
+	// Id of the capture owning each slot, so marks for an overwritten capture are dropped
+	private final AtomicIntegerArray owners = new AtomicIntegerArray(CAPACITY);
+	private final AtomicIntegerArray waves = new AtomicIntegerArray(CAPACITY);
+	private final AtomicLongArray stamps = new AtomicLongArray(CAPACITY * STAGES.length);
+
+	/**
+	 * Starts tracing a capture.
+	 *
+	 * @param reinforcements whether the capture is of reinforcements rather than the wave spawn
+	 * @return the id to pass to {@link #mark(int, Stage)}
+	 */
+	public int begin(int wave, boolean reinforcements)
+	{
+		int id = nextId.getAndIncrement() & Integer.MAX_VALUE;
+		int slot = id % CAPACITY;
+		owners.set(slot, -1);
+		for (int stage = 0; stage < STAGES.length; stage++)
+		{
+			stamps.set(slot * STAGES.length + stage, 0);
+		}
+		waves.set(slot, reinforcements ? -wave : wave);
+		owners.set(slot, id);
+		return id;
+	}
+
+	public void mark(int id, Stage stage)
+	{
+		if (id < 0)
+		{
+			return;
+		}
+
+		int slot = id % CAPACITY;
+		if (owners.get(slot) == id)
+		{
+			stamps.compareAndSet(slot * STAGES.length + stage.ordinal(), 0, System.nanoTime());
+		}
+	}
+
+	/**
+	 * The traced captures, oldest first, with the microseconds between each stage and the previous stamped stage.
+	 */
+	public String toCsv()
+	{
+		StringBuilder sb = new StringBuilder("wave,type");
+		for (Stage stage : STAGES)
+		{
+			sb.append(',').append(stage.column).append("_us");
+		}
+		sb.append(",total_us\n");
+
+		int last = nextId.get() & Integer.MAX_VALUE;
+		for (int id = Math.max(0, last - CAPACITY); id < last; id++)
+		{
+			int slot = id % CAPACITY;
+			if (owners.get(slot) != id)
+			{
+				continue;
+			}
+
+			int wave = waves.get(slot);
+			sb.append(Math.abs(wave)).append(',').append(wave < 0 ? "reinforcements" : "spawn");
+
+			long first = 0;
+			long previous = 0;
+			for (int stage = 0; stage < STAGES.length; stage++)
+			{
+				long stamp = stamps.get(slot * STAGES.length + stage);
+				sb.append(',');
+				if (stamp == 0)
+				{
+					continue;
+				}
+
+				if (previous != 0)
+				{
+					sb.append((stamp - previous) / 1000);
+				}
+				else
+				{
+					first = stamp;
+				}
+				previous = stamp;
+			}
+			sb.append(',').append(first != 0 ? (previous - first) / 1000 : 0).append('\n');
+		}
+		return sb.toString();
+	}
+}
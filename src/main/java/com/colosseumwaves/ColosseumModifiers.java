@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import static net.runelite.api.gameval.VarbitID.COLOSSEUM_MODIFIER_MANTIMAYHEM_STACKS_CLIENT;
+import net.runelite.api.Client;
+import net.runelite.api.events.VarbitChanged;
+
+/**
+ * The Colosseum modifier levels, kept up to date from {@link VarbitChanged} instead of being polled.
+ * <p>
+ * Every modifier's level lives in one packed int, {@link #LEVEL_BITS} bits per modifier, so the state can be stamped
+ * onto a capture or a stored wave as a single value and queried later with {@link #level(int, Modifier)}. No
+ * modifier goes past level 3, so two bits hold any level. Only modifiers whose varbit is in RuneLite's
+ * {@code VarbitID} are tracked; another is added by appending it to {@link Modifier}, which leaves stored states
+ * readable.
+ */
+@Singleton
+public class ColosseumModifiers
+{
+	static final int LEVEL_BITS = 2;
+	private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+
+	enum Modifier
+	{
+		// Stored states depend on the order, so new modifiers go at the end
+		MANTIMAYHEM(COLOSSEUM_MODIFIER_MANTIMAYHEM_STACKS_CLIENT);
+
+		private final int varbit;
+
+		Modifier(int varbit)
+		{
+			this.varbit = varbit;
+		}
+
+		private int shift()
+		{
+			return ordinal() * LEVEL_BITS;
+		}
+	}
+
+	private static final Modifier[] MODIFIERS = Modifier.values();
+
+	@Inject
+	private Client client;
+
+	private volatile int state;
+
+	/**
+	 * The packed level of every modifier.
+	 */
+	int getState()
+	{
+		return state;
+	}
+
+	static int level(int state, Modifier modifier)
+	{
+		return state >>> modifier.shift() & LEVEL_MASK;
+	}
+
+	int level(Modifier modifier)
+	{
+		return level(state, modifier);
+	}
+
+	void onVarbitChanged(VarbitChanged event)
+	{
+		int varbit = event.getVarbitId();
+		for (Modifier modifier : MODIFIERS)
+		{
+			if (modifier.varbit == varbit)
+			{
+				state = withLevel(state, modifier, event.getValue());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reads every modifier from the client, for when varbits may have changed without this seeing the events, such as
+	 * before the plugin was started. Must be called on the client thread.
+	 */
+	void sync()
+	{
+		int synced = 0;
+		for (Modifier modifier : MODIFIERS)
+		{
+			synced = withLevel(synced, modifier, client.getVarbitValue(modifier.varbit));
+		}
+		state = synced;
+	}
+
+	/**
+	 * {@code state} with one modifier's level replaced.
+	 */
+	static int withLevel(int state, Modifier modifier, int level)
+	{
+		int clamped = Math.max(0, Math.min(level, LEVEL_MASK));
+		return state & ~(LEVEL_MASK << modifier.shift()) | clamped << modifier.shift();
+	}
+}
@@ -28,10 +28,13 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
 
-@ConfigGroup("colosseumwaves")
+@ConfigGroup(ColosseumWavesConfig.GROUP)
 public interface ColosseumWavesConfig extends Config
 {
+	String GROUP = "colosseumwaves";
+
 	@ConfigSection(
 		name = "Include Player Location",
 		description = "Configure when to include player location in LoS links",
@@ -74,4 +77,144 @@ public interface ColosseumWavesConfig extends Config
 	{
 		return true;
 	}
-}
\ No newline at end of file
+
+	@Range(
+		max = 10
+	)
+	@ConfigItem(
+		keyName = "currentLoSPredictionTicks",
+		name = "Predict ticks ahead",
+		description = "Add a Current LoS button with NPCs moved to where they will be after chasing you for this many ticks, 0 to disable",
+		position = 4
+	)
+	default int currentLoSPredictionTicks()
+	{
+		return 0;
+	}
+
+	@ConfigItem(
+		keyName = "captureStacks",
+		name = "Capture pillar stacks",
+		description = "Save a Current LoS link to the panel whenever NPCs stack up behind a pillar or the stacks change",
+		position = 5
+	)
+	default boolean captureStacks()
+	{
+		return false;
+	}
+
+	@ConfigSection(
+		name = "History",
+		description = "Configure how previous runs are kept",
+		position = 10
+	)
+	String historySection = "history";
+
+	@Range(
+		min = 1,
+		max = 100
+	)
+	@ConfigItem(
+		keyName = "hotRunLimit",
+		name = "Runs kept in memory",
+		description = "Number of recent runs kept in memory, older runs are read back from disk when browsed",
+		position = 11,
+		section = historySection
+	)
+	default int hotRunLimit()
+	{
+		return 10;
+	}
+
+	@ConfigSection(
+		name = "Advanced",
+		description = "Advanced options",
+		position = 20,
+		closedByDefault = true
+	)
+	String advancedSection = "advanced";
+
+	@ConfigItem(
+		keyName = "lazyStartup",
+		name = "Lazy startup",
+		description = "Wait until you log in before adding the panel, and until you enter the Colosseum or open the panel before loading run history",
+		position = 21,
+		section = advancedSection
+	)
+	default boolean lazyStartup()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+		keyName = "showCaptureTimings",
+		name = "Show capture timings",
+		description = "Add a panel button showing how long each stage of capturing recent waves took",
+		position = 22,
+		section = advancedSection
+	)
+	default boolean showCaptureTimings()
+	{
+		return false;
+	}
+
+	@ConfigSection(
+		name = "Live State",
+		description = "Stream live capture state to other tools on this computer",
+		position = 30,
+		closedByDefault = true
+	)
+	String liveStateSection = "liveState";
+
+	@ConfigItem(
+		keyName = "liveStateServer",
+		name = "Enable live state server",
+		description = "Send each capture as a line of JSON to tools connected to 127.0.0.1 on the port below",
+		position = 31,
+		section = liveStateSection
+	)
+	default boolean liveStateServer()
+	{
+		return false;
+	}
+
+	@Range(
+		min = 1024,
+		max = 65535
+	)
+	@ConfigItem(
+		keyName = "liveStatePort",
+		name = "Port",
+		description = "Local port the live state server listens on",
+		position = 32,
+		section = liveStateSection
+	)
+	default int liveStatePort()
+	{
+		return 37780;
+	}
+
+	@ConfigItem(
+		keyName = "liveStateEveryTick",
+		name = "Send every tick",
+		description = "Also send NPC positions, manticore attacks and the player tile on every tick of a wave",
+		position = 33,
+		section = liveStateSection
+	)
+	default boolean liveStateEveryTick()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "liveStateFile",
+		name = "Write live state file",
+		description = "Keep every tick's NPCs and player tile in colosseum-waves/live-state.bin for local tools to read",
+		position = 34,
+		section = liveStateSection
+	)
+	default boolean liveStateFile()
+	{
+		return false;
+	}
+}
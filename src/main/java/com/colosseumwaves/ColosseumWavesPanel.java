@@ -28,19 +28,34 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.inject.Inject;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JComponent;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
@@ -56,21 +71,73 @@ public class ColosseumWavesPanel extends PluginPanel
 	private static final int WAVE_NUMBER_WIDTH = 42;
 	private static final int SPAWN_BUTTON_WIDTH = 62;
 	private static final int REINFORCEMENTS_BUTTON_WIDTH = 118;
+	private static final int HISTORY_BUTTON_WIDTH = 30;
+	private static final int PASTED_RUN = -2;
+	private static final int STACK_CAPTURE_LIMIT = 3;
+	private static final int CLOSEST_RUN_LIMIT = 10;
 	private static final Dimension FULL_WIDTH = new Dimension(Integer.MAX_VALUE, COMPONENT_HEIGHT);
 	private static final Color BG_COLOR = ColorScheme.DARK_GRAY_COLOR;
 	private static final Color BTN_COLOR = ColorScheme.DARKER_GRAY_COLOR;
 	private static final Color HOVER_COLOR = new Color(52, 52, 52);
 
-	private final JPanel wavesContainer;
+	private final ColosseumWavesPlugin plugin;
+	private final ClientThread clientThread;
+	private final ColosseumWavesConfig config;
+	private final CaptureTrace captureTrace;
 	private final List<WavePanel> wavePanels = new ArrayList<>();
+	// Predictions made before their wave was added to the panel
+	private final Map<Integer, SpawnIndex.Prediction> pendingPredictions = new HashMap<>();
+	private JPanel stackCaptures;
+	private JLabel manticoreAttacks;
+
+	// The components are built on first use, so the panel costs nothing until it is opened or a wave is captured
+	private boolean built;
+	private JPanel wavesContainer;
+
+	// Previous runs, browsed in place of the current run's waves
+	private JPanel wavesWrapper;
+	private JPanel historyContainer;
+	private JLabel runLabel;
+	private JButton olderRunButton;
+	private JButton newerRunButton;
+	private JButton captureTimings;
+	private JButton predictedLoS;
+	private int historySize;
+	// Index of the run being browsed, -1 for the current run or PASTED_RUN for a pasted bundle
+	private int viewedRun = -1;
+	// The browsed or pasted run shown in the history container
+	private RunRecord shownRun;
 
 	@Inject
-	public ColosseumWavesPanel(final ColosseumWavesPlugin plugin, final ClientThread clientThread)
+	public ColosseumWavesPanel(final ColosseumWavesPlugin plugin, final ClientThread clientThread,
+		final ColosseumWavesConfig config, final CaptureTrace captureTrace)
 	{
 		super(false);
+		this.plugin = plugin;
+		this.clientThread = clientThread;
+		this.config = config;
+		this.captureTrace = captureTrace;
 
 		setBackground(BG_COLOR);
 		setLayout(new BorderLayout());
+	}
+
+	@Override
+	public void onActivate()
+	{
+		build();
+		captureTimings.setVisible(config.showCaptureTimings());
+		updatePredictedLoS();
+		plugin.initialize();
+	}
+
+	private void build()
+	{
+		if (built)
+		{
+			return;
+		}
+		built = true;
 
 		JPanel header = new JPanel();
 		header.setOpaque(false);
@@ -87,12 +154,139 @@ public class ColosseumWavesPanel extends PluginPanel
 			}
 		}));
 
-		JLabel wavesLabel = createLabel("Waves");
-		setFixedSize(wavesLabel, FULL_WIDTH);
+		predictedLoS = createButton("", FULL_WIDTH);
+		predictedLoS.addActionListener(e -> clientThread.invokeLater(() ->
+		{
+			String url = plugin.generatePredictedLoSLink();
+			if (url != null)
+			{
+				SwingUtilities.invokeLater(() -> LinkBrowser.browse(url));
+			}
+		}));
+		updatePredictedLoS();
+
+		manticoreAttacks = createLabel("");
+		manticoreAttacks.setBorder(new EmptyBorder(GAP, GAP, GAP, GAP));
+		manticoreAttacks.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
+		manticoreAttacks.setVisible(false);
+
+		stackCaptures = new JPanel();
+		stackCaptures.setLayout(new BoxLayout(stackCaptures, BoxLayout.Y_AXIS));
+		stackCaptures.setOpaque(false);
+
+		JButton analyzeArchive = createButton("Analyze", FULL_WIDTH);
+		analyzeArchive.addActionListener(e ->
+		{
+			analyzeArchive.setEnabled(false);
+			plugin.analyzeArchive(analysis -> SwingUtilities.invokeLater(() ->
+			{
+				analyzeArchive.setEnabled(true);
+				JOptionPane.showMessageDialog(this, analysis.describe(), "Colosseum archive", JOptionPane.PLAIN_MESSAGE);
+			}));
+		});
+
+		JButton importLinks = createButton("Import", FULL_WIDTH);
+		importLinks.setToolTipText("Import LoS links from a text file");
+		importLinks.addActionListener(e ->
+		{
+			JFileChooser fileChooser = new JFileChooser();
+			fileChooser.setDialogTitle("Import LoS links");
+			if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+			{
+				return;
+			}
+
+			importLinks.setEnabled(false);
+			plugin.importLinks(fileChooser.getSelectedFile().toPath(), imported -> SwingUtilities.invokeLater(() ->
+			{
+				importLinks.setEnabled(true);
+				JOptionPane.showMessageDialog(this, imported < 0 ? "Unable to read the file" : "Imported " + imported + " links",
+					"Import LoS links", JOptionPane.PLAIN_MESSAGE);
+			}));
+		});
+
+		JButton exportLinks = createButton("Export", FULL_WIDTH);
+		exportLinks.setToolTipText("Export the LoS links of every saved wave to a CSV file");
+		exportLinks.addActionListener(e ->
+		{
+			JFileChooser fileChooser = new JFileChooser();
+			fileChooser.setDialogTitle("Export LoS links");
+			fileChooser.setSelectedFile(new File("colosseum-links.csv"));
+			if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+			{
+				return;
+			}
+
+			exportLinks.setEnabled(false);
+			plugin.exportLinks(fileChooser.getSelectedFile().toPath(), exported -> SwingUtilities.invokeLater(() ->
+			{
+				exportLinks.setEnabled(true);
+				JOptionPane.showMessageDialog(this, exported < 0 ? "Unable to write the file" : "Exported " + exported + " links",
+					"Export LoS links", JOptionPane.PLAIN_MESSAGE);
+			}));
+		});
+
+		JPanel archiveRow = new JPanel(new GridLayout(1, 3, GAP, 0));
+		archiveRow.setOpaque(false);
+		setFixedSize(archiveRow, FULL_WIDTH);
+		archiveRow.add(analyzeArchive);
+		archiveRow.add(importLinks);
+		archiveRow.add(exportLinks);
+
+		captureTimings = createButton("Capture timings", FULL_WIDTH);
+		captureTimings.addActionListener(e -> showCaptureTimings());
+		captureTimings.setVisible(config.showCaptureTimings());
+
+		olderRunButton = createButton("<", new Dimension(HISTORY_BUTTON_WIDTH, COMPONENT_HEIGHT));
+		olderRunButton.addActionListener(e -> showRun(viewedRun < 0 ? historySize - 1 : viewedRun - 1));
+
+		newerRunButton = createButton(">", new Dimension(HISTORY_BUTTON_WIDTH, COMPONENT_HEIGHT));
+		newerRunButton.addActionListener(e -> showRun(viewedRun + 1 >= historySize ? -1 : viewedRun + 1));
+
+		runLabel = createLabel("Waves");
+		setFixedSize(runLabel, FULL_WIDTH);
+
+		JPanel runRow = new JPanel();
+		runRow.setLayout(new BoxLayout(runRow, BoxLayout.X_AXIS));
+		runRow.setOpaque(false);
+		setFixedSize(runRow, FULL_WIDTH);
+		runRow.add(olderRunButton);
+		runRow.add(Box.createRigidArea(new Dimension(GAP, 0)));
+		runRow.add(runLabel);
+		runRow.add(Box.createRigidArea(new Dimension(GAP, 0)));
+		runRow.add(newerRunButton);
+		updateRunNavigation();
+
+		JButton copyRun = createButton("Copy run", FULL_WIDTH);
+		copyRun.addActionListener(e -> copyRunBundle());
+
+		JButton pasteRun = createButton("Paste run", FULL_WIDTH);
+		pasteRun.addActionListener(e -> pasteRunBundle());
+
+		JButton compareRun = createButton("Compare", FULL_WIDTH);
+		compareRun.addActionListener(e -> compareRun(compareRun));
+
+		JPanel bundleRow = new JPanel(new GridLayout(1, 3, GAP, 0));
+		bundleRow.setOpaque(false);
+		setFixedSize(bundleRow, FULL_WIDTH);
+		bundleRow.add(copyRun);
+		bundleRow.add(pasteRun);
+		bundleRow.add(compareRun);
 
 		header.add(currentLoS);
 		header.add(Box.createRigidArea(new Dimension(0, GAP)));
-		header.add(wavesLabel);
+		header.add(predictedLoS);
+		header.add(Box.createRigidArea(new Dimension(0, GAP)));
+		header.add(stackCaptures);
+		header.add(manticoreAttacks);
+		header.add(Box.createRigidArea(new Dimension(0, GAP)));
+		header.add(archiveRow);
+		header.add(Box.createRigidArea(new Dimension(0, GAP)));
+		header.add(captureTimings);
+		header.add(Box.createRigidArea(new Dimension(0, GAP)));
+		header.add(runRow);
+		header.add(Box.createRigidArea(new Dimension(0, GAP)));
+		header.add(bundleRow);
 
 		add(header, BorderLayout.NORTH);
 
@@ -100,17 +294,300 @@ public class ColosseumWavesPanel extends PluginPanel
 		wavesContainer.setLayout(new BoxLayout(wavesContainer, BoxLayout.Y_AXIS));
 		wavesContainer.setBackground(BG_COLOR);
 
-		JPanel wrapper = new JPanel(new BorderLayout());
-		wrapper.setBackground(BG_COLOR);
-		wrapper.add(wavesContainer, BorderLayout.NORTH);
-		add(wrapper, BorderLayout.CENTER);
+		historyContainer = new JPanel();
+		historyContainer.setLayout(new BoxLayout(historyContainer, BoxLayout.Y_AXIS));
+		historyContainer.setBackground(BG_COLOR);
+
+		wavesWrapper = new JPanel(new BorderLayout());
+		wavesWrapper.setBackground(BG_COLOR);
+		wavesWrapper.add(wavesContainer, BorderLayout.NORTH);
+		add(wavesWrapper, BorderLayout.CENTER);
+		revalidate();
+	}
+
+	private void updatePredictedLoS()
+	{
+		int ticks = config.currentLoSPredictionTicks();
+		predictedLoS.setText("Current LoS in " + ticks + (ticks == 1 ? " tick" : " ticks"));
+		predictedLoS.setVisible(ticks > 0);
+	}
+
+	public void refreshHistory()
+	{
+		int size = plugin.getHistorySize();
+		SwingUtilities.invokeLater(() ->
+		{
+			historySize = size;
+			if (built)
+			{
+				updateRunNavigation();
+			}
+		});
+	}
+
+	private void showRun(int index)
+	{
+		viewedRun = index;
+		updateRunNavigation();
+
+		if (index < 0)
+		{
+			showWaves(wavesContainer);
+			return;
+		}
+
+		plugin.loadRun(index, run -> SwingUtilities.invokeLater(() ->
+		{
+			if (viewedRun != index)
+			{
+				return;
+			}
+
+			if (run != null)
+			{
+				runLabel.setText((index + 1) + "/" + historySize + "  " + (run.isImported() ? "Imported " : "")
+					+ new SimpleDateFormat("MMM d, HH:mm").format(new Date(run.getStartTime())));
+			}
+			showRecord(run);
+		}));
+	}
+
+	private void showRecord(RunRecord run)
+	{
+		shownRun = run;
+		historyContainer.removeAll();
+		if (run != null)
+		{
+			for (WaveRecord wave : run.getWaves())
+			{
+				WavePanel panel = new WavePanel(wave.getWave());
+				if (wave.getSpawns().length > 0)
+				{
+					panel.setSpawnUrl(wave.getSpawnUrl(config.includePlayerLocationSpawns()));
+				}
+				if (wave.hasReinforcements())
+				{
+					panel.setReinforcementUrl(wave.getReinforcementUrl(config.includePlayerLocationReinforcements()));
+				}
+				historyContainer.add(panel);
+				historyContainer.add(Box.createRigidArea(new Dimension(0, GAP)));
+			}
+		}
+		showWaves(historyContainer);
+	}
+
+	private void copyRunBundle()
+	{
+		if (viewedRun != -1)
+		{
+			copyToClipboard(shownRun == null ? null : encodeBundle(shownRun));
+			return;
+		}
+
+		clientThread.invokeLater(() ->
+		{
+			String bundle;
+			try
+			{
+				bundle = plugin.getCurrentRunBundle();
+			}
+			catch (IllegalArgumentException e)
+			{
+				bundle = null;
+			}
+			String copied = bundle;
+			SwingUtilities.invokeLater(() -> copyToClipboard(copied));
+		});
+	}
+
+	private String encodeBundle(RunRecord run)
+	{
+		try
+		{
+			return new RunBundle().encode(run);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	private void copyToClipboard(String bundle)
+	{
+		if (bundle == null)
+		{
+			JOptionPane.showMessageDialog(this, "There is no run to copy", "Copy run", JOptionPane.PLAIN_MESSAGE);
+			return;
+		}
+		Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(bundle), null);
+	}
+
+	/**
+	 * Compares the shown run, or the live run, against the closest runs in the archive.
+	 */
+	private void compareRun(JButton button)
+	{
+		if (viewedRun != -1)
+		{
+			compareRun(button, shownRun);
+			return;
+		}
+
+		clientThread.invokeLater(() ->
+		{
+			RunRecord run = plugin.getCurrentRun();
+			SwingUtilities.invokeLater(() -> compareRun(button, run));
+		});
+	}
+
+	private void compareRun(JButton button, RunRecord run)
+	{
+		if (run == null)
+		{
+			JOptionPane.showMessageDialog(this, "There is no run to compare", "Compare run", JOptionPane.PLAIN_MESSAGE);
+			return;
+		}
+
+		button.setEnabled(false);
+		plugin.findClosestRuns(run, CLOSEST_RUN_LIMIT, matches -> SwingUtilities.invokeLater(() ->
+		{
+			button.setEnabled(true);
+			if (matches.isEmpty())
+			{
+				JOptionPane.showMessageDialog(this, "There are no other runs to compare with", "Compare run",
+					JOptionPane.PLAIN_MESSAGE);
+				return;
+			}
+
+			String[] choices = new String[matches.size()];
+			SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, HH:mm");
+			for (int i = 0; i < choices.length; i++)
+			{
+				RunDiff.Match match = matches.get(i);
+				RunRecord closest = match.getRun();
+				choices[i] = (i + 1) + ". " + (closest.isImported() ? "Imported " : "")
+					+ dateFormat.format(new Date(closest.getStartTime())) + " (" + match.getDistance() + " different)";
+			}
+
+			Object choice = JOptionPane.showInputDialog(this, "Closest runs", "Compare run", JOptionPane.PLAIN_MESSAGE,
+				null, choices, choices[0]);
+			for (int i = 0; i < choices.length; i++)
+			{
+				if (choices[i].equals(choice))
+				{
+					showDiff(RunDiff.diff(run, matches.get(i).getRun()));
+					return;
+				}
+			}
+		}));
+	}
+
+	private void showDiff(List<RunDiff.WaveDiff> diffs)
+	{
+		JPanel rows = new JPanel();
+		rows.setLayout(new BoxLayout(rows, BoxLayout.Y_AXIS));
+		for (RunDiff.WaveDiff diff : diffs)
+		{
+			JPanel row = new JPanel(new BorderLayout(GAP, 0));
+			row.add(new JLabel(diff.describe()), BorderLayout.CENTER);
+
+			JPanel links = new JPanel(new GridLayout(1, 2, GAP, 0));
+			links.add(createDiffLink("This run", diff.getUrl()));
+			links.add(createDiffLink("Other run", diff.getOtherUrl()));
+			row.add(links, BorderLayout.EAST);
+			rows.add(row);
+		}
+
+		JScrollPane scrollPane = new JScrollPane(rows);
+		scrollPane.setPreferredSize(new Dimension(480, 320));
+		JOptionPane.showMessageDialog(this, scrollPane, "Run differences", JOptionPane.PLAIN_MESSAGE);
+	}
+
+	private static JButton createDiffLink(String text, String url)
+	{
+		JButton button = new JButton(text);
+		button.setEnabled(url != null);
+		if (url != null)
+		{
+			button.addActionListener(e -> LinkBrowser.browse(url));
+		}
+		return button;
+	}
+
+	private void pasteRunBundle()
+	{
+		String text;
+		try
+		{
+			text = (String) Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+		}
+		catch (UnsupportedFlavorException | IOException | IllegalStateException e)
+		{
+			text = null;
+		}
+
+		RunRecord run = null;
+		if (text != null)
+		{
+			text = text.trim();
+			try
+			{
+				run = new RunBundle().decode(text, 0, text.length());
+			}
+			catch (IllegalArgumentException e)
+			{
+				run = null;
+			}
+		}
+
+		if (run == null)
+		{
+			JOptionPane.showMessageDialog(this, "The clipboard does not hold a copied run", "Paste run", JOptionPane.PLAIN_MESSAGE);
+			return;
+		}
+
+		viewedRun = PASTED_RUN;
+		updateRunNavigation();
+		showRecord(run);
+	}
+
+	private void showWaves(JPanel container)
+	{
+		wavesWrapper.removeAll();
+		wavesWrapper.add(container, BorderLayout.NORTH);
+		wavesWrapper.revalidate();
+		wavesWrapper.repaint();
+	}
+
+	private void updateRunNavigation()
+	{
+		if (viewedRun == PASTED_RUN)
+		{
+			runLabel.setText("Pasted run");
+		}
+		else if (viewedRun < 0)
+		{
+			runLabel.setText("Waves");
+		}
+		else
+		{
+			runLabel.setText("Run " + (viewedRun + 1) + " of " + historySize);
+		}
+		olderRunButton.setEnabled(viewedRun != 0 && historySize > 0);
+		newerRunButton.setEnabled(viewedRun != -1);
 	}
 
 	public void addWave(int waveNumber)
 	{
 		SwingUtilities.invokeLater(() ->
 		{
+			build();
 			WavePanel panel = new WavePanel(waveNumber);
+			SpawnIndex.Prediction prediction = pendingPredictions.remove(waveNumber);
+			if (prediction != null)
+			{
+				panel.setPrediction(prediction);
+			}
 			wavePanels.add(panel);
 			wavesContainer.add(panel);
 			wavesContainer.add(Box.createRigidArea(new Dimension(0, GAP)));
@@ -118,14 +595,149 @@ public class ColosseumWavesPanel extends PluginPanel
 		});
 	}
 
-	public void setWaveSpawnUrl(int waveNumber, String url)
+	public void setWaveSpawnUrl(int waveNumber, String url, int traceId)
+	{
+		runOnWavePanel(waveNumber, panel ->
+		{
+			panel.setSpawnUrl(url);
+			captureTrace.mark(traceId, CaptureTrace.Stage.BUTTON_ENABLED);
+		});
+	}
+
+	public void setWaveReinforcementUrl(int waveNumber, String url, int traceId)
+	{
+		runOnWavePanel(waveNumber, panel ->
+		{
+			panel.setReinforcementUrl(url);
+			captureTrace.mark(traceId, CaptureTrace.Stage.BUTTON_ENABLED);
+		});
+	}
+
+	/**
+	 * Marks a wave whose spawn set was never seen on that wave in previous runs.
+	 */
+	public void setWaveNovel(int waveNumber)
+	{
+		runOnWavePanel(waveNumber, WavePanel::markNovel);
+	}
+
+	/**
+	 * Shows the predicted next attack of each charged manticore, or hides the predictions if the text is empty.
+	 */
+	public void setManticoreAttacks(String text)
+	{
+		SwingUtilities.invokeLater(() ->
+		{
+			build();
+			manticoreAttacks.setText(text);
+			manticoreAttacks.setVisible(!text.isEmpty());
+			manticoreAttacks.revalidate();
+		});
+	}
+
+	/**
+	 * Adds an automatically captured Current LoS link, keeping only the most recent few.
+	 */
+	public void addStackCapture(String label, String url)
+	{
+		SwingUtilities.invokeLater(() ->
+		{
+			build();
+			JButton button = createButton(label, FULL_WIDTH);
+			button.addActionListener(e -> LinkBrowser.browse(url));
+
+			// Each capture is a button followed by a gap, newest first
+			stackCaptures.add(Box.createRigidArea(new Dimension(0, GAP)), 0);
+			stackCaptures.add(button, 0);
+			while (stackCaptures.getComponentCount() > STACK_CAPTURE_LIMIT * 2)
+			{
+				stackCaptures.remove(stackCaptures.getComponentCount() - 1);
+			}
+			stackCaptures.revalidate();
+			stackCaptures.repaint();
+		});
+	}
+
+	/**
+	 * Replaces the current run's links after the player location settings changed, and rebuilds the links of a
+	 * browsed run to match.
+	 *
+	 * @param spawnUrls new spawn links indexed by wave, null where unchanged
+	 * @param reinforcementUrls new reinforcement links indexed by wave, null where unchanged
+	 */
+	public void updateWaveUrls(String[] spawnUrls, String[] reinforcementUrls)
 	{
-		runOnWavePanel(waveNumber, panel -> panel.setSpawnUrl(url));
+		SwingUtilities.invokeLater(() ->
+		{
+			for (int waveNumber = 1; waveNumber <= wavePanels.size() && waveNumber < spawnUrls.length; waveNumber++)
+			{
+				WavePanel panel = wavePanels.get(waveNumber - 1);
+				if (spawnUrls[waveNumber] != null)
+				{
+					panel.setSpawnUrl(spawnUrls[waveNumber]);
+				}
+				if (reinforcementUrls[waveNumber] != null)
+				{
+					panel.setReinforcementUrl(reinforcementUrls[waveNumber]);
+				}
+			}
+
+			if (built && viewedRun != -1 && shownRun != null)
+			{
+				showRecord(shownRun);
+			}
+		});
 	}
 
-	public void setWaveReinforcementUrl(int waveNumber, String url)
+	/**
+	 * Shows the predicted spawn set on a wave, holding on to it if the wave has not been added yet.
+	 */
+	public void setWavePrediction(SpawnIndex.Prediction prediction)
 	{
-		runOnWavePanel(waveNumber, panel -> panel.setReinforcementUrl(url));
+		SwingUtilities.invokeLater(() ->
+		{
+			int waveNumber = prediction.getWave();
+			if (waveNumber > 0 && waveNumber <= wavePanels.size())
+			{
+				wavePanels.get(waveNumber - 1).setPrediction(prediction);
+			}
+			else
+			{
+				pendingPredictions.put(waveNumber, prediction);
+			}
+		});
+	}
+
+	private void showCaptureTimings()
+	{
+		String csv = captureTrace.toCsv();
+		String[] lines = csv.split("\n");
+		String[] columns = lines[0].split(",", -1);
+		String[][] rows = new String[lines.length - 1][];
+		for (int i = 1; i < lines.length; i++)
+		{
+			rows[i - 1] = lines[i].split(",", -1);
+		}
+
+		JTable table = new JTable(rows, columns);
+		table.setEnabled(false);
+		JScrollPane scrollPane = new JScrollPane(table);
+		scrollPane.setPreferredSize(new Dimension(640, 320));
+
+		DeferredWork deferredWork = plugin.getDeferredWork();
+		JPanel content = new JPanel(new BorderLayout(0, GAP));
+		content.add(new JLabel("Deferred work: " + deferredWork.getQueueDepth() + " queued (at most "
+			+ deferredWork.getMaxQueueDepth() + "), " + deferredWork.getTasksRun() + " run, "
+			+ deferredWork.getOverruns() + " ticks over budget"), BorderLayout.NORTH);
+		content.add(scrollPane, BorderLayout.CENTER);
+
+		String[] options = {"Copy CSV", "Close"};
+		int choice = JOptionPane.showOptionDialog(this, content, "Capture timings (microseconds)",
+			JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+		if (choice == 0)
+		{
+			Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(csv), null);
+		}
 	}
 
 	private void runOnWavePanel(int waveNumber, java.util.function.Consumer<WavePanel> action)
@@ -143,9 +755,13 @@ public class ColosseumWavesPanel extends PluginPanel
 	{
 		SwingUtilities.invokeLater(() ->
 		{
+			build();
 			wavePanels.clear();
+			pendingPredictions.clear();
 			wavesContainer.removeAll();
 			wavesContainer.revalidate();
+			stackCaptures.removeAll();
+			stackCaptures.revalidate();
 		});
 	}
 
@@ -160,9 +776,20 @@ public class ColosseumWavesPanel extends PluginPanel
 
 	private static final class WavePanel extends JPanel
 	{
+		// Previews are built and decoded on the EDT only
+		private static final LosUrlDecoder PREVIEW_DECODER = new LosUrlDecoder();
+
 		private final JLabel numberLabel;
 		private final JButton spawnButton;
 		private final JButton reinfButton;
+		private final JButton predictionButton;
+		private final JPanel south;
+		private String spawnUrl;
+		private String reinforcementUrl;
+		// Created the first time the wave number is clicked
+		private ArenaPreview preview;
+		private JLabel previewLabel;
+		private boolean previewingReinforcements;
 
 		WavePanel(int wave)
 		{
@@ -177,6 +804,16 @@ public class ColosseumWavesPanel extends PluginPanel
 
 			numberLabel = createLabel(String.valueOf(wave));
 			setFixedSize(numberLabel, WAVE_NUMBER_WIDTH, COMPONENT_HEIGHT);
+			numberLabel.setToolTipText("Show the arena");
+			numberLabel.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+			numberLabel.addMouseListener(new MouseAdapter()
+			{
+				@Override
+				public void mouseClicked(MouseEvent e)
+				{
+					togglePreview();
+				}
+			});
 
 			spawnButton = createButton("Spawn", new Dimension(SPAWN_BUTTON_WIDTH, COMPONENT_HEIGHT));
 			spawnButton.setEnabled(false);
@@ -191,19 +828,115 @@ public class ColosseumWavesPanel extends PluginPanel
 			row.add(Box.createRigidArea(new Dimension(GAP, 0)));
 			row.add(reinfButton);
 
+			predictionButton = createButton("", FULL_WIDTH);
+			predictionButton.setVisible(false);
+
+			south = new JPanel();
+			south.setLayout(new BoxLayout(south, BoxLayout.Y_AXIS));
+			south.setOpaque(false);
+			south.add(predictionButton);
+
 			add(row, BorderLayout.CENTER);
+			add(south, BorderLayout.SOUTH);
+		}
+
+		private void togglePreview()
+		{
+			if (preview == null)
+			{
+				previewLabel = createLabel("");
+				setFixedSize(previewLabel, FULL_WIDTH);
+
+				preview = new ArenaPreview();
+				preview.setToolTipText("Click to switch between the spawn and reinforcements");
+				preview.addMouseListener(new MouseAdapter()
+				{
+					@Override
+					public void mouseClicked(MouseEvent e)
+					{
+						if (reinforcementUrl != null)
+						{
+							previewingReinforcements = !previewingReinforcements;
+							updatePreview();
+						}
+					}
+				});
+
+				south.add(previewLabel);
+				south.add(preview);
+				updatePreview();
+			}
+			else
+			{
+				boolean visible = !preview.isVisible();
+				preview.setVisible(visible);
+				previewLabel.setVisible(visible);
+			}
+			revalidate();
 		}
 
+		private void updatePreview()
+		{
+			if (preview == null)
+			{
+				return;
+			}
+
+			boolean reinforcements = previewingReinforcements && reinforcementUrl != null;
+			String url = reinforcements ? reinforcementUrl : spawnUrl;
+			if (url != null && PREVIEW_DECODER.decode(url, 0, url.length()))
+			{
+				preview.setCapture(PREVIEW_DECODER.copyCodes(), PREVIEW_DECODER.getPlayer());
+				previewLabel.setText(reinforcements ? "Reinforcements" : "Spawn");
+			}
+			else
+			{
+				preview.setCapture(new int[0], LosUrls.NO_PLAYER);
+				previewLabel.setText("Not captured yet");
+			}
+		}
+
+		void setPrediction(SpawnIndex.Prediction prediction)
+		{
+			String composition = RunAnalysis.describeComposition(
+				RunAnalysis.compositionKey(prediction.getWave(), prediction.getSpawns()));
+			String seen = prediction.getMatches() + "/" + prediction.getCandidates();
+			predictionButton.setToolTipText("Most likely spawn: " + composition);
+			predictionButton.setVisible(true);
+
+			if (prediction.getReinforcements().length > 0)
+			{
+				predictionButton.setText("Likely reinforcements (" + seen + ")");
+				String url = LosUrls.build(prediction.getReinforcements(), LosUrls.NO_PLAYER, false,
+					prediction.isMantimayhem3());
+				enableButton(predictionButton, () -> LinkBrowser.browse(url));
+			}
+			else
+			{
+				predictionButton.setText("Spawn seen before (" + seen + ")");
+				predictionButton.setEnabled(false);
+			}
+		}
+
+		void markNovel()
+		{
+			numberLabel.setForeground(ColorScheme.BRAND_ORANGE);
+			numberLabel.setToolTipText("New spawn, never seen on this wave before. Click to show the arena");
+		}
 
 		void setSpawnUrl(String url)
 		{
+			spawnUrl = url;
 			enableButton(spawnButton, () -> LinkBrowser.browse(url));
+			updatePreview();
 		}
 
 		void setReinforcementUrl(String url)
 		{
+			reinforcementUrl = url;
 			reinfButton.setVisible(true);
 			enableButton(reinfButton, () -> LinkBrowser.browse(url));
+			updatePreview();
 		}
 
 		private void enableButton(JButton b, Runnable action)
@@ -25,16 +25,30 @@
 package com.colosseumwaves;
 
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.inject.Inject;
 import javax.annotation.Nullable;
 import javax.inject.Provider;
+import javax.swing.SwingUtilities;
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Provides;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
@@ -43,20 +57,26 @@ import net.runelite.api.Player;
 import net.runelite.api.Point;
 import net.runelite.api.WorldView;
 import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.NpcDespawned;
 import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.VarbitChanged;
 import net.runelite.api.gameval.NpcID;
-import static net.runelite.api.gameval.VarbitID.COLOSSEUM_MODIFIER_MANTIMAYHEM_STACKS_CLIENT;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
 
+@Slf4j
 @PluginDescriptor(
 	name = "Colosseum Waves",
 	description = "Captures player & NPC locations for wave spawns & reinforcements in Fortis Colosseum, and generates Colosseum LoS links for planning and analysis. You can also generate a \"Current LoS\" link to capture the current pillar stack.",
@@ -68,6 +88,8 @@ public class ColosseumWavesPlugin extends Plugin
 	private static final int COLOSSEUM_REGION_ID = 7216;
 	private static final int LOS_COORD_OFFSET_X = 32;
 	private static final int LOS_COORD_OFFSET_Y = 83;
+	private static final int HISTORY_TAIL_INTERVAL_SECONDS = 10;
+	private static final long DEFERRED_WORK_BUDGET_NANOS = 500_000;
 
 	private static final Pattern WAVE_START_PATTERN = Pattern.compile("Wave: (\\d+)");
 	private static final Pattern WAVE_COMPLETE_PATTERN = Pattern.compile("Wave (\\d+) completed");
@@ -81,10 +103,21 @@ public class ColosseumWavesPlugin extends Plugin
 		.put(NpcID.COLOSSEUM_MINOTAUR_ROUTEFIND, 5) // Minotaur (Red Flag)
 		.put(NpcID.COLOSSEUM_SHOCKWAVE_COLOSSUS, 6) // Shockwave Colossus
 		.build();
+	// COLOSSEUM_WAVE_NPCS as sorted arrays, for the per-tick loops that would otherwise box every NPC id
+	private static final int[] WAVE_NPC_IDS = COLOSSEUM_WAVE_NPCS.keySet().stream()
+		.mapToInt(Integer::intValue)
+		.sorted()
+		.toArray();
+	private static final int[] WAVE_NPC_LOS_TYPES = Arrays.stream(WAVE_NPC_IDS)
+		.map(COLOSSEUM_WAVE_NPCS::get)
+		.toArray();
 
 	@Inject
 	private Client client;
 
+	@Inject
+	private ClientThread clientThread;
+
 	@Inject
 	private ClientToolbar clientToolbar;
 
@@ -94,11 +127,48 @@ public class ColosseumWavesPlugin extends Plugin
 	@Inject
 	private ManticoreHandler manticoreHandler;
 
+	@Inject
+	private NpcIdentities npcIdentities;
+
+	@Inject
+	private ColosseumModifiers colosseumModifiers;
+
 	@Inject
 	private Provider<ColosseumWavesPanel> panelProvider;
 
-	private ColosseumWavesPanel panel;
+	@Inject
+	private RunStore runStore;
+
+	@Inject
+	private RunHistory runHistory;
+
+	@Inject
+	private RunImporter runImporter;
+
+	@Inject
+	private SpawnIndex spawnIndex;
+
+	@Inject
+	private SpawnFilter spawnFilter;
+
+	@Inject
+	private CaptureTrace captureTrace;
+
+	@Inject
+	private EventBus eventBus;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
+	// Built on the Swing thread after login with lazy startup, so both stay null until then
+	private volatile ColosseumWavesPanel panel;
 	private NavigationButton navButton;
+	// Between startUp and shutDown, so a navigation button queued at login is not added after shutting down
+	private volatile boolean running;
+	// Set once history and lookup tables have been loaded, see initialize()
+	private final AtomicBoolean initialized = new AtomicBoolean();
+	private ScheduledFuture<?> historyTailFuture;
+	private final AtomicReference<WaveSnapshot> latestSnapshot = new AtomicReference<>();
 
 	private boolean inColosseum;
 	private int currentWave;
@@ -108,11 +178,58 @@ public class ColosseumWavesPlugin extends Plugin
 
 	private final List<NpcSpawn> waveSpawns = new ArrayList<>();
 	private final List<NpcSpawn> reinforcementSpawns = new ArrayList<>();
+	// Identities of the current wave's live NPCs; a new one showing up once the wave spawn was handled is a reinforcement
+	private final LongSet waveNpcs = new LongSet();
+	private boolean waveSpawnHandled;
 	private Point playerLocationAtWaveSpawn;
 	private Point playerLocationAtReinforcements;
+	private int reinforcementTick = -1;
+	// CaptureTrace ids of the wave spawn capture and of the capture currently being handled
+	private int spawnTraceId = -1;
+	private int captureTraceId = -1;
+
+	// Waves of the current run, saved to the run store when the run ends
+	private final List<WaveRecord> runWaves = new ArrayList<>();
+	private long runStartTime;
 
 	// Mantimayhem III tracking
 	private boolean mantimayhem3Active = false;
+	// Modifier levels at the start of the current wave, attached to its captures
+	private int waveModifiers;
+
+	// Config values read while capturing, refreshed on ConfigChanged instead of going through the config proxy
+	private volatile boolean includePlayerAtSpawn;
+	private volatile boolean includePlayerAtReinforcements;
+	private volatile boolean includePlayerCurrent;
+	private volatile boolean captureStacks;
+	private volatile boolean liveStateEveryTick;
+
+	// Set while the live state server is enabled and listening
+	private volatile LiveStateServer liveStateServer;
+	// Set while the live state file is enabled and mapped
+	private volatile LiveStateFile liveStateFile;
+	// The NPCs of a live state tick, reused every tick
+	private final int[] liveNpcIds = new int[LiveStateFileReader.MAX_NPCS];
+	private final long[] liveNpcIdentities = new long[LiveStateFileReader.MAX_NPCS];
+	private final int[] liveNpcCodes = new int[LiveStateFileReader.MAX_NPCS];
+
+	private final PillarStacks pillarStacks = new PillarStacks();
+	private final WaveTimings waveTimings = new WaveTimings();
+
+	// Non-urgent client thread work, drained at the end of each tick
+	@Getter
+	private final DeferredWork deferredWork = new DeferredWork();
+	private boolean waveUrlRefreshQueued;
+	// Last manticore attack text sent to the panel, so it is only sent again when it changes
+	private String manticoreAttacks = "";
+	private final StringBuilder manticoreAttackText = new StringBuilder();
+
+	// The current run's links as shown in the panel and the player tiles captured with them, indexed by wave,
+	// so a config change only has to swap the #player fragment of each link
+	private final String[] spawnUrls = new String[RunAnalysis.MAX_WAVE + 1];
+	private final String[] reinforcementUrls = new String[RunAnalysis.MAX_WAVE + 1];
+	private final int[] spawnPlayers = new int[RunAnalysis.MAX_WAVE + 1];
+	private final int[] reinforcementPlayers = new int[RunAnalysis.MAX_WAVE + 1];
 
 	@Provides
 	ColosseumWavesConfig provideConfig(ConfigManager configManager)
@@ -123,8 +240,40 @@ public class ColosseumWavesPlugin extends Plugin
 	@Override
 	protected void startUp() throws Exception
 	{
+		long startNanos = System.nanoTime();
+		cacheConfig();
+		clearRunLinks();
 		resetState();
+		updateLiveState();
+		running = true;
+
+		// Set up callback for when manticore patterns are completed
+		manticoreHandler.setOnPatternCompleteCallback(this::onManticorePatternComplete);
+
+		// With lazy startup the panel waits for login, see onGameStateChanged
+		if (!config.lazyStartup() || client.getGameState() == GameState.LOGGED_IN)
+		{
+			addNavigation();
+		}
+		if (!config.lazyStartup())
+		{
+			initialize();
+		}
+
+		log.debug("Colosseum Waves started in {}us (lazy startup: {})", (System.nanoTime() - startNanos) / 1000, config.lazyStartup());
+	}
+
+	/**
+	 * Builds the panel, loads its icon and adds its navigation button, once. Must be called on the Swing thread.
+	 */
+	private void addNavigation()
+	{
+		if (!running || navButton != null)
+		{
+			return;
+		}
 
+		long startNanos = System.nanoTime();
 		panel = panelProvider.get();
 
 		final BufferedImage icon = ImageUtil.loadImageResource(getClass(), "colosseum_icon.png");
@@ -137,21 +286,208 @@ public class ColosseumWavesPlugin extends Plugin
 			.build();
 
 		clientToolbar.addNavigation(navButton);
+		log.debug("Colosseum Waves panel added in {}us", (System.nanoTime() - startNanos) / 1000);
+	}
 
-		// Set up callback for when manticore patterns are completed
-		manticoreHandler.setOnPatternCompleteCallback(this::onManticorePatternComplete);
+	/**
+	 * Loads run history and anything else only needed in or around the Colosseum. With lazy startup this runs
+	 * when the player first enters the Colosseum or the panel is first opened, otherwise on startup.
+	 */
+	void initialize()
+	{
+		if (!initialized.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		executor.execute(() ->
+		{
+			long startNanos = System.nanoTime();
+			runHistory.load();
+			refreshPanelHistory();
+			spawnFilter.update();
+			// The index outlives a restart, so rebuild it rather than adding every run a second time
+			spawnIndex.rebuild(runStore::forEachRun);
+			runHistory.setOtherRunListener(spawnIndex::add);
+			ArenaPathing.warmUp();
+			log.debug("Colosseum Waves initialized in {}us", (System.nanoTime() - startNanos) / 1000);
+		});
+
+		// Pick up runs saved by other clients sharing the run store
+		historyTailFuture = executor.scheduleWithFixedDelay(() ->
+		{
+			if (runHistory.tail() > 0)
+			{
+				refreshPanelHistory();
+				spawnFilter.update();
+			}
+		}, HISTORY_TAIL_INTERVAL_SECONDS, HISTORY_TAIL_INTERVAL_SECONDS, TimeUnit.SECONDS);
 	}
 
 	@Override
 	protected void shutDown() throws Exception
 	{
+		resetState();
+		// The queue belongs to the client thread, and its tasks only refresh links and the panel being torn down
+		clientThread.invoke(() ->
+		{
+			deferredWork.clear();
+			waveUrlRefreshQueued = false;
+		});
 		manticoreHandler.clear();
+		stopLiveState();
 
-		clientToolbar.removeNavigation(navButton);
+		running = false;
+		if (navButton != null)
+		{
+			clientToolbar.removeNavigation(navButton);
+		}
 		panel = null;
 		navButton = null;
+		if (historyTailFuture != null)
+		{
+			historyTailFuture.cancel(false);
+			historyTailFuture = null;
+		}
+		initialized.set(false);
+		latestSnapshot.set(null);
+	}
 
-		resetState();
+	@Subscribe
+	public void onConfigChanged(ConfigChanged event)
+	{
+		if (!ColosseumWavesConfig.GROUP.equals(event.getGroup()))
+		{
+			return;
+		}
+
+		boolean spawnsChanged = includePlayerAtSpawn != config.includePlayerLocationSpawns();
+		boolean reinforcementsChanged = includePlayerAtReinforcements != config.includePlayerLocationReinforcements();
+		cacheConfig();
+		updateLiveState();
+		if (spawnsChanged || reinforcementsChanged)
+		{
+			clientThread.invoke(() -> deferredWork.submit(DeferredWork.Priority.LOW,
+				() -> regenerateLinks(spawnsChanged, reinforcementsChanged)));
+		}
+	}
+
+	private void cacheConfig()
+	{
+		includePlayerAtSpawn = config.includePlayerLocationSpawns();
+		includePlayerAtReinforcements = config.includePlayerLocationReinforcements();
+		includePlayerCurrent = config.includePlayerLocationCurrent();
+		captureStacks = config.captureStacks();
+		liveStateEveryTick = config.liveStateEveryTick();
+		runHistory.setHotRunLimit(config.hotRunLimit());
+	}
+
+	/**
+	 * Starts, stops or moves the live state server and opens or closes the live state file to match the config.
+	 */
+	private synchronized void updateLiveState()
+	{
+		if (config.liveStateFile() != (liveStateFile != null))
+		{
+			LiveStateFile file = liveStateFile;
+			liveStateFile = null;
+			if (file != null)
+			{
+				file.close();
+			}
+			else
+			{
+				file = new LiveStateFile(RunStore.STORE_DIR.toPath().resolve(LiveStateFile.FILE_NAME));
+				try
+				{
+					file.open();
+					liveStateFile = file;
+				}
+				catch (IOException e)
+				{
+					log.warn("Unable to open the live state file", e);
+				}
+			}
+		}
+
+		boolean enabled = config.liveStateServer();
+		int port = config.liveStatePort();
+		LiveStateServer server = liveStateServer;
+		if (server != null && (!enabled || server.getPort() != port))
+		{
+			liveStateServer = null;
+			server.stop();
+			server = null;
+		}
+
+		if (enabled && server == null)
+		{
+			server = new LiveStateServer(port);
+			try
+			{
+				server.start();
+				liveStateServer = server;
+				log.debug("Live state server listening on port {}", port);
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to start the live state server on port {}", port, e);
+			}
+		}
+	}
+
+	private synchronized void stopLiveState()
+	{
+		LiveStateServer server = liveStateServer;
+		if (server != null)
+		{
+			liveStateServer = null;
+			server.stop();
+		}
+
+		LiveStateFile file = liveStateFile;
+		if (file != null)
+		{
+			liveStateFile = null;
+			file.close();
+		}
+	}
+
+	/**
+	 * Adds or drops the player tile on the current run's links after the player location settings changed, and
+	 * sends the links that changed to the panel in one batch.
+	 */
+	private void regenerateLinks(boolean spawnsChanged, boolean reinforcementsChanged)
+	{
+		String[] changedSpawnUrls = new String[spawnUrls.length];
+		String[] changedReinforcementUrls = new String[reinforcementUrls.length];
+		for (int wave = 1; wave < spawnUrls.length; wave++)
+		{
+			if (spawnsChanged && spawnUrls[wave] != null && spawnPlayers[wave] != LosUrls.NO_PLAYER)
+			{
+				spawnUrls[wave] = LosUrls.withPlayer(spawnUrls[wave], includePlayerAtSpawn ? spawnPlayers[wave] : LosUrls.NO_PLAYER);
+				changedSpawnUrls[wave] = spawnUrls[wave];
+			}
+			if (reinforcementsChanged && reinforcementUrls[wave] != null && reinforcementPlayers[wave] != LosUrls.NO_PLAYER)
+			{
+				reinforcementUrls[wave] = LosUrls.withPlayer(reinforcementUrls[wave],
+					includePlayerAtReinforcements ? reinforcementPlayers[wave] : LosUrls.NO_PLAYER);
+				changedReinforcementUrls[wave] = reinforcementUrls[wave];
+			}
+		}
+
+		if (panel != null)
+		{
+			panel.updateWaveUrls(changedSpawnUrls, changedReinforcementUrls);
+		}
+	}
+
+	private void clearRunLinks()
+	{
+		Arrays.fill(spawnUrls, null);
+		Arrays.fill(reinforcementUrls, null);
+		Arrays.fill(spawnPlayers, LosUrls.NO_PLAYER);
+		Arrays.fill(reinforcementPlayers, LosUrls.NO_PLAYER);
 	}
 
 	@Subscribe
@@ -172,17 +508,29 @@ public class ColosseumWavesPlugin extends Plugin
 
 			if (newWave == 1)
 			{
-				panel.reset();
+				recordCurrentWave();
+				finishRun();
+				runStartTime = System.currentTimeMillis();
+				clearRunLinks();
+				if (panel != null)
+				{
+					panel.reset();
+				}
 			}
 
 			currentWave = newWave;
 			waveStartTick = client.getTickCount();
+			waveTimings.waveStarted(newWave, waveStartTick);
+			spawnTraceId = captureTrace.begin(newWave, false);
+			captureTrace.mark(spawnTraceId, CaptureTrace.Stage.WAVE_MESSAGE);
 
 			// Check MM3 status when a new wave starts
 			checkMantimayhem3Status();
 		}
 		else if (waveCompleteMatcher.find())
 		{
+			waveTimings.waveEnded(client.getTickCount());
+			recordCurrentWave();
 			clearCurrentWaveState();
 		}
 	}
@@ -190,6 +538,11 @@ public class ColosseumWavesPlugin extends Plugin
 	@Subscribe
 	public void onGameStateChanged(GameStateChanged event)
 	{
+		if (event.getGameState() == GameState.LOGGED_IN && navButton == null)
+		{
+			SwingUtilities.invokeLater(this::addNavigation);
+		}
+
 		if (inColosseum && event.getGameState() == GameState.LOGGED_IN && !isInColosseum())
 		{
 			resetState();
@@ -203,26 +556,40 @@ public class ColosseumWavesPlugin extends Plugin
 		{
 			resetState();
 			inColosseum = true;
+			colosseumModifiers.sync();
+			initialize();
 		}
 		else if (inColosseum && !isInColosseum())
 		{
 			resetState();
 		}
 
-		if (waveStartTick > 0)
+		if (inColosseum && npcsCaptured)
 		{
-			int currentTick = client.getTickCount();
-			int ticksSinceWaveStart = currentTick - waveStartTick;
-			if (ticksSinceWaveStart > 10 && !reinforcementsPhase)
+			int[] spawnCodes = null;
+			if (reinforcementsPhase)
 			{
-				reinforcementsPhase = true;
-				npcsCaptured = false;
+				// The whole board as it stands, looked up from the live set rather than scanning every NPC
+				reinforcementSpawns.clear();
+				collectWaveNpcs(reinforcementSpawns);
+				manticoreHandler.captureSpawnStates(true);
 			}
-		}
+			else
+			{
+				manticoreHandler.captureSpawnStates(false);
+				spawnCodes = encodeSpawns(waveSpawns, true, false);
+			}
+			captureTrace.mark(captureTraceId, CaptureTrace.Stage.CAPTURED);
 
-		if (inColosseum && npcsCaptured)
-		{
 			handleWaveSpawnsAndReinforcements();
+			if (spawnCodes != null && spawnFilter.isNovel(currentWave, spawnCodes))
+			{
+				if (panel != null)
+				{
+					panel.setWaveNovel(currentWave);
+				}
+			}
+			waveSpawnHandled = true;
 			npcsCaptured = false;
 		}
 
@@ -231,6 +598,173 @@ public class ColosseumWavesPlugin extends Plugin
 		if (inColosseum && currentWave > 0)
 		{
 			manticoreHandler.checkAllManticores();
+			updateManticoreAttacks();
+			if (captureStacks)
+			{
+				updatePillarStacks();
+			}
+			if (liveStateEveryTick || liveStateFile != null)
+			{
+				publishLiveTick();
+			}
+		}
+
+		deferredWork.drain(DEFERRED_WORK_BUDGET_NANOS);
+	}
+
+	private void updateManticoreAttacks()
+	{
+		ManticoreScheduler scheduler = manticoreHandler.getScheduler();
+		int tick = client.getTickCount();
+		StringBuilder sb = manticoreAttackText;
+		sb.setLength(0);
+		for (int slot = 0; slot < ManticoreScheduler.MAX_MANTICORES; slot++)
+		{
+			if (!scheduler.isActive(slot))
+			{
+				continue;
+			}
+
+			int ticks = scheduler.nextAttackTick(slot) - tick;
+			sb.append(sb.length() == 0 ? "<html>" : "<br>")
+				.append("Manticore: ").append(ManticoreScheduler.styleName(scheduler.nextStyle(slot)));
+			if (ticks <= 0)
+			{
+				sb.append(" now");
+			}
+			else
+			{
+				sb.append(" in ").append(ticks).append(ticks == 1 ? " tick" : " ticks");
+			}
+		}
+
+		// Only build a new string when the text changed
+		if (!manticoreAttacks.contentEquals(sb))
+		{
+			manticoreAttacks = sb.toString();
+			if (panel != null)
+			{
+				panel.setManticoreAttacks(manticoreAttacks);
+			}
+		}
+	}
+
+	/**
+	 * Runs every tick, so tiles are worked out as packed ints rather than through LocalPoint and Point.
+	 */
+	private void updatePillarStacks()
+	{
+		WorldView wv = client.getTopLevelWorldView();
+		Player localPlayer = client.getLocalPlayer();
+		int player = wv == null || localPlayer == null ? -1 : losTile(wv, localPlayer.getWorldLocation());
+		if (player < 0)
+		{
+			return;
+		}
+
+		pillarStacks.beginTick(player % 256, player / 256);
+		for (NPC npc : wv.npcs())
+		{
+			int losType = losType(npc.getId());
+			if (losType == 0)
+			{
+				continue;
+			}
+
+			int tile = losTile(wv, npc.getWorldLocation());
+			if (tile >= 0)
+			{
+				pillarStacks.update(npcIdentities.current(npc.getIndex()), tile % 256, tile / 256, losType);
+			}
+		}
+
+		if (pillarStacks.endTick())
+		{
+			captureStackLink();
+		}
+	}
+
+	private void publishLiveTick()
+	{
+		LiveStateServer server = liveStateEveryTick ? liveStateServer : null;
+		boolean toServer = server != null && server.hasClients();
+		LiveStateFile file = liveStateFile;
+		WorldView wv = client.getTopLevelWorldView();
+		if ((!toServer && file == null) || wv == null)
+		{
+			return;
+		}
+
+		int count = 0;
+		for (NPC npc : wv.npcs())
+		{
+			Integer losType = COLOSSEUM_WAVE_NPCS.get(npc.getId());
+			if (losType == null || count == liveNpcCodes.length)
+			{
+				continue;
+			}
+
+			Point sceneLocation = getNPCSceneLocation(npc);
+			if (sceneLocation == null)
+			{
+				continue;
+			}
+
+			long identity = npcIdentities.current(npc.getIndex());
+			int manticoreState = SpawnCode.NONE;
+			if (isManticore(npc))
+			{
+				String suffix = manticoreHandler.getManticoreLosSuffix(identity);
+				manticoreState = SpawnCode.parseManticoreState(suffix, 0, suffix.length());
+			}
+			Point losLocation = convertToLoSCoordinates(sceneLocation);
+			liveNpcIds[count] = npc.getId();
+			liveNpcIdentities[count] = identity;
+			liveNpcCodes[count++] = SpawnCode.pack(losLocation.getX(), losLocation.getY(), losType, manticoreState);
+		}
+
+		int tick = client.getTickCount();
+		int player = encodePlayerLocation(getPlayerLocation());
+		if (toServer)
+		{
+			server.publishTick(currentWave, tick, player, liveNpcCodes, count, manticoreHandler.getScheduler());
+		}
+		if (file != null)
+		{
+			file.publish(currentWave, tick, player, mantimayhem3Active, waveModifiers, liveNpcIds, liveNpcIdentities,
+				liveNpcCodes, count);
+		}
+	}
+
+	private void captureStackLink()
+	{
+		String url = generateCurrentLoSLink();
+		if (url == null)
+		{
+			return;
+		}
+
+		StringBuilder label = new StringBuilder()
+			.append('W').append(currentWave)
+			.append(" t").append(client.getTickCount() - waveStartTick)
+			.append(':');
+		if (!pillarStacks.hasStacks())
+		{
+			label.append(" no stacks");
+		}
+		char separator = ' ';
+		for (int pillar = 0; pillar < ArenaMap.PILLAR_NAMES.length; pillar++)
+		{
+			int stackSize = pillarStacks.stackSize(pillar);
+			if (stackSize > 0)
+			{
+				label.append(separator).append(stackSize).append(' ').append(ArenaMap.PILLAR_NAMES[pillar]);
+				separator = ',';
+			}
+		}
+		if (panel != null)
+		{
+			panel.addStackCapture(label.toString(), url);
 		}
 	}
 
@@ -283,51 +817,107 @@ public class ColosseumWavesPlugin extends Plugin
 	@Subscribe
 	public void onNpcSpawned(NpcSpawned event)
 	{
+		NPC npc = event.getNpc();
+		// Every spawn starts a new identity for its index, in or out of a wave, so nothing stale can match it
+		long identity = npcIdentities.spawned(npc.getIndex());
 		if (!inColosseum)
 		{
 			return;
 		}
-		NPC npc = event.getNpc();
 
-		if (isManticore(npc) && !reinforcementsPhase)
+		// Don't track NPCs if we're not in an active wave
+		if (currentWave <= 0 || !COLOSSEUM_WAVE_NPCS.containsKey(npc.getId()) || !waveNpcs.add(identity))
 		{
-			// Only track new manticores during initial spawn, not reinforcements
-			manticoreHandler.onNpcSpawned(npc);
+			return;
 		}
 
-		if (COLOSSEUM_WAVE_NPCS.containsKey(npc.getId()))
+		if (!npcsCaptured)
 		{
-			// Don't track NPCs if we're not in an active wave
-			if (currentWave <= 0)
+			// The first new NPC of a tick; once the wave spawn has been handled, new NPCs are reinforcements
+			reinforcementsPhase = waveSpawnHandled;
+			captureTraceId = reinforcementsPhase ? captureTrace.begin(currentWave, true) : spawnTraceId;
+			captureTrace.mark(captureTraceId, CaptureTrace.Stage.FIRST_SPAWN);
+			if (reinforcementsPhase)
 			{
-				return;
+				reinforcementTick = client.getTickCount() - waveStartTick;
+				waveTimings.reinforcementsArrived(client.getTickCount());
 			}
+			npcsCaptured = true;
+		}
 
-			if (!npcsCaptured)
+		if (!reinforcementsPhase)
+		{
+			// Only track new manticores during initial spawn, not reinforcements
+			if (isManticore(npc))
 			{
-				List<NpcSpawn> spawns = collectActiveColosseumNPCs();
-				if (!reinforcementsPhase)
-				{
-					waveSpawns.clear();
-					waveSpawns.addAll(spawns);
-					manticoreHandler.captureSpawnStates(false);
-				}
-				else
-				{
-					reinforcementSpawns.clear();
-					reinforcementSpawns.addAll(spawns);
-					manticoreHandler.captureSpawnStates(true);
-				}
+				manticoreHandler.onNpcSpawned(npc);
+			}
 
-				npcsCaptured = true;
+			Point location = getNPCSceneLocation(npc);
+			if (location != null)
+			{
+				waveSpawns.add(new NpcSpawn(npc.getId(), location, identity));
+				predictWave();
 			}
 		}
 	}
 
+	/**
+	 * Predicts the rest of the wave from the NPCs spawned so far, refined as each one spawns.
+	 */
+	private void predictWave()
+	{
+		SpawnIndex.Prediction prediction = spawnIndex.predict(currentWave, encodeSpawns(waveSpawns, true, false),
+			mantimayhem3Active);
+		if (prediction != null)
+		{
+			if (panel != null)
+			{
+				panel.setWavePrediction(prediction);
+			}
+		}
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		colosseumModifiers.onVarbitChanged(event);
+	}
+
+	@Subscribe
+	public void onNpcDespawned(NpcDespawned event)
+	{
+		int npcIndex = event.getNpc().getIndex();
+		if (waveNpcs.remove(npcIdentities.current(npcIndex)))
+		{
+			waveTimings.npcDespawned(npcIndex, client.getTickCount());
+		}
+	}
+
 	// We no longer need the GraphicChanged event handler since we're polling every tick
 	// This approach is more reliable for detecting manticore charges behind pillars
 
 	private void onManticorePatternComplete()
+	{
+		// Several manticores can complete their patterns on the same tick, one refresh covers them all
+		if (waveUrlRefreshQueued)
+		{
+			return;
+		}
+
+		waveUrlRefreshQueued = true;
+		int wave = currentWave;
+		deferredWork.submit(DeferredWork.Priority.HIGH, () ->
+		{
+			waveUrlRefreshQueued = false;
+			if (currentWave == wave)
+			{
+				refreshManticoreWaveUrls();
+			}
+		});
+	}
+
+	private void refreshManticoreWaveUrls()
 	{
 		// Update URLs when a manticore pattern becomes complete
 		if (!waveSpawns.isEmpty())
@@ -351,6 +941,40 @@ public class ColosseumWavesPlugin extends Plugin
 		}
 	}
 
+	/**
+	 * Adds the current wave's live NPCs to {@code spawns}.
+	 */
+	private void collectWaveNpcs(List<NpcSpawn> spawns)
+	{
+		WorldView wv = client.getTopLevelWorldView();
+		if (wv == null)
+		{
+			return;
+		}
+
+		for (int i = 0; i < waveNpcs.size(); i++)
+		{
+			long identity = waveNpcs.get(i);
+			NPC npc = wv.npcs().byIndex(NpcIdentities.index(identity));
+			// Skip an NPC that took over the index before the wave NPC's despawn was seen
+			if (npc == null || !npcIdentities.isCurrent(identity))
+			{
+				continue;
+			}
+
+			Point location = getNPCSceneLocation(npc);
+			if (location == null)
+			{
+				continue;
+			}
+			if (isManticore(npc))
+			{
+				manticoreHandler.ensureManticoreTracked(npc);
+			}
+			spawns.add(new NpcSpawn(npc.getId(), location, identity));
+		}
+	}
+
 	private List<NpcSpawn> collectActiveColosseumNPCs()
 	{
 		List<NpcSpawn> activeNPCs = new ArrayList<>();
@@ -374,7 +998,7 @@ public class ColosseumWavesPlugin extends Plugin
 				{
 					manticoreHandler.ensureManticoreTracked(npc);
 				}
-				activeNPCs.add(new NpcSpawn(npc.getId(), currentPos, npc.getIndex()));
+				activeNPCs.add(new NpcSpawn(npc.getId(), currentPos, npcIdentities.current(npc.getIndex())));
 			}
 		}
 		return activeNPCs;
@@ -396,6 +1020,34 @@ public class ColosseumWavesPlugin extends Plugin
 		return new Point(lp.getSceneX(), lp.getSceneY());
 	}
 
+	/**
+	 * The LoS tile of a world location packed like a link's player tile, {@code x + 256 * y}, or -1 if it is not in
+	 * the scene or the arena. The same as {@link #convertToLoSCoordinates} of the scene location, without allocating.
+	 */
+	private static int losTile(WorldView wv, WorldPoint location)
+	{
+		int sceneX = location.getX() - wv.getBaseX();
+		int sceneY = location.getY() - wv.getBaseY();
+		if (location.getPlane() != wv.getPlane() || sceneX < 0 || sceneY < 0 || sceneX >= wv.getSizeX()
+			|| sceneY >= wv.getSizeY())
+		{
+			return -1;
+		}
+
+		int losX = sceneX - LOS_COORD_OFFSET_X;
+		int losY = LOS_COORD_OFFSET_Y - sceneY;
+		return losX < 0 || losY < 0 || losX > 255 || losY > 255 ? -1 : LosUrls.encodePlayer(losX, losY);
+	}
+
+	/**
+	 * The LoS type of a wave NPC, or 0 for any other NPC; {@link #COLOSSEUM_WAVE_NPCS} without boxing the id.
+	 */
+	private static int losType(int npcId)
+	{
+		int i = Arrays.binarySearch(WAVE_NPC_IDS, npcId);
+		return i < 0 ? 0 : WAVE_NPC_LOS_TYPES[i];
+	}
+
 	private Point convertToLoSCoordinates(Point sceneLocation)
 	{
 		int losX = sceneLocation.getX() - LOS_COORD_OFFSET_X;
@@ -406,27 +1058,25 @@ public class ColosseumWavesPlugin extends Plugin
 
 	private void handleWaveSpawnsAndReinforcements()
 	{
+		captureTrace.mark(captureTraceId, CaptureTrace.Stage.HANDLED);
 		if (!reinforcementsPhase)
 		{
 			if (!waveSpawns.isEmpty())
 			{
-				if (config.includePlayerLocationSpawns())
+				playerLocationAtWaveSpawn = getPlayerLocation();
+				if (panel != null)
 				{
-					playerLocationAtWaveSpawn = getPlayerLocation();
+					panel.addWave(currentWave);
 				}
-				panel.addWave(currentWave);
-				updateCurrentWaveUrl(false);
+				updateCurrentWaveUrl(false, captureTraceId);
 			}
 		}
 		else
 		{
 			if (!reinforcementSpawns.isEmpty())
 			{
-				if (config.includePlayerLocationReinforcements())
-				{
-					playerLocationAtReinforcements = getPlayerLocation();
-				}
-				updateCurrentWaveUrl(true);
+				playerLocationAtReinforcements = getPlayerLocation();
+				updateCurrentWaveUrl(true, captureTraceId);
 			}
 		}
 	}
@@ -446,110 +1096,380 @@ public class ColosseumWavesPlugin extends Plugin
 			return null;
 		}
 
-		Point currentPlayerLocation = config.includePlayerLocationCurrent() ? getPlayerLocation() : null;
+		Point currentPlayerLocation = includePlayerCurrent ? getPlayerLocation() : null;
 		// Pass false for isSpawnUrl since this is current LoS, not initial spawn
 		return buildLoSUrl(currentSpawns, currentPlayerLocation, false, false);
 	}
 
-	private void appendManticoreSuffixIfNeeded(StringBuilder urlBuilder, NpcSpawn spawn, boolean isSpawnUrl, boolean isReinforcement)
+	/**
+	 * A "Current LoS" link with every NPC moved to where it is predicted to be after chasing the player for
+	 * {@link ColosseumWavesConfig#currentLoSPredictionTicks()} ticks.
+	 */
+	@Nullable
+	public String generatePredictedLoSLink()
+	{
+		if (!inColosseum)
+		{
+			return null;
+		}
+
+		List<NpcSpawn> currentSpawns = collectActiveColosseumNPCs();
+		Point playerLocation = getPlayerLocation();
+		if (currentSpawns.isEmpty() || playerLocation == null)
+		{
+			return null;
+		}
+
+		int ticks = config.currentLoSPredictionTicks();
+		int[] codes = encodeSpawns(currentSpawns, false, false);
+		for (int i = 0; i < codes.length; i++)
+		{
+			codes[i] = ArenaPathing.predict(codes[i], playerLocation.getX(), playerLocation.getY(), ticks);
+		}
+
+		Point linkPlayerLocation = includePlayerCurrent ? playerLocation : null;
+		return LosUrls.build(codes, encodePlayerLocation(linkPlayerLocation), false, mantimayhem3Active);
+	}
+
+	private int getManticoreState(NpcSpawn spawn, boolean isSpawnUrl, boolean isReinforcement)
 	{
 		if (spawn.getNpcId() != NpcID.COLOSSEUM_MANTICORE)
 		{
-			return;
+			return SpawnCode.NONE;
 		}
 
 		String suffix;
 		if (isSpawnUrl)
 		{
-			suffix = manticoreHandler.getManticoreSpawnLosSuffix(spawn.getNpcIndex(), isReinforcement);
+			suffix = manticoreHandler.getManticoreSpawnLosSuffix(spawn.getIdentity(), isReinforcement);
 		}
 		else
 		{
-			suffix = manticoreHandler.getManticoreLosSuffix(spawn.getNpcIndex());
+			suffix = manticoreHandler.getManticoreLosSuffix(spawn.getIdentity());
 		}
-		urlBuilder.append(suffix);
+		return SpawnCode.parseManticoreState(suffix, 0, suffix.length());
 	}
 
-	private String buildLoSUrl(List<NpcSpawn> spawns, @Nullable Point playerLocation, boolean isSpawnUrl, boolean isReinforcement)
+	private int[] encodeSpawns(List<NpcSpawn> spawns, boolean isSpawnUrl, boolean isReinforcement)
 	{
-		String baseUrl = "https://los.colosim.com/?";
-		StringBuilder urlBuilder = new StringBuilder(baseUrl);
-
+		int[] codes = new int[spawns.size()];
+		int count = 0;
 		for (NpcSpawn spawn : spawns)
 		{
-			Point losPos = convertToLoSCoordinates(spawn.getLocation());
 			Integer losNpcId = COLOSSEUM_WAVE_NPCS.get(spawn.getNpcId());
-
 			if (losNpcId != null)
 			{
-				String spawnCode = String.format("%02d%02d%d", losPos.getX(), losPos.getY(), losNpcId);
-				urlBuilder.append(spawnCode);
+				Point losPos = convertToLoSCoordinates(spawn.getLocation());
+				codes[count++] = SpawnCode.pack(losPos.getX(), losPos.getY(), losNpcId,
+					getManticoreState(spawn, isSpawnUrl, isReinforcement));
+			}
+		}
+		return count == codes.length ? codes : Arrays.copyOf(codes, count);
+	}
+
+	private static int encodePlayerLocation(@Nullable Point playerLocation)
+	{
+		return playerLocation == null ? LosUrls.NO_PLAYER : LosUrls.encodePlayer(playerLocation.getX(), playerLocation.getY());
+	}
+
+	private String buildLoSUrl(List<NpcSpawn> spawns, @Nullable Point playerLocation, boolean isSpawnUrl, boolean isReinforcement)
+	{
+		return LosUrls.build(encodeSpawns(spawns, isSpawnUrl, isReinforcement), encodePlayerLocation(playerLocation),
+			isSpawnUrl && !isReinforcement, mantimayhem3Active);
+	}
+
+	private void updateCurrentWaveUrl(boolean isReinforcements)
+	{
+		updateCurrentWaveUrl(isReinforcements, -1);
+	}
+
+	private void updateCurrentWaveUrl(boolean isReinforcements, int traceId)
+	{
+		if (currentWave <= 0)
+		{
+			return;
+		}
+
+		boolean tracked = currentWave < spawnUrls.length;
+		if (!isReinforcements)
+		{
+			if (waveSpawns.isEmpty())
+			{
+				return;
+			}
 
-				appendManticoreSuffixIfNeeded(urlBuilder, spawn, isSpawnUrl, isReinforcement);
-				urlBuilder.append(".");
+			WaveSnapshot snapshot = takeSnapshot(waveSpawns, includePlayerAtSpawn ? playerLocationAtWaveSpawn : null, false);
+			captureTrace.mark(traceId, CaptureTrace.Stage.URL_BUILT);
+			if (tracked)
+			{
+				spawnUrls[currentWave] = snapshot.getUrl();
+				spawnPlayers[currentWave] = encodePlayerLocation(playerLocationAtWaveSpawn);
 			}
+			if (panel != null)
+			{
+				panel.setWaveSpawnUrl(currentWave, snapshot.getUrl(), traceId);
+			}
+			publishSnapshot(snapshot);
 		}
+		else
+		{
+			if (reinforcementSpawns.isEmpty())
+			{
+				return;
+			}
+
+			WaveSnapshot snapshot = takeSnapshot(reinforcementSpawns,
+				includePlayerAtReinforcements ? playerLocationAtReinforcements : null, true);
+			captureTrace.mark(traceId, CaptureTrace.Stage.URL_BUILT);
+			if (tracked)
+			{
+				reinforcementUrls[currentWave] = snapshot.getUrl();
+				reinforcementPlayers[currentWave] = encodePlayerLocation(playerLocationAtReinforcements);
+			}
+			if (panel != null)
+			{
+				panel.setWaveReinforcementUrl(currentWave, snapshot.getUrl(), traceId);
+			}
+			publishSnapshot(snapshot);
+		}
+	}
+
+	private WaveSnapshot takeSnapshot(List<NpcSpawn> spawns, @Nullable Point playerLocation, boolean isReinforcements)
+	{
+		int[] codes = encodeSpawns(spawns, true, isReinforcements);
+		int player = encodePlayerLocation(playerLocation);
+		String url = LosUrls.build(codes, player, !isReinforcements, mantimayhem3Active);
+		return new WaveSnapshot(currentWave, isReinforcements, client.getTickCount(), codes, player, mantimayhem3Active,
+			waveModifiers, url);
+	}
 
-		if (playerLocation != null)
+	private void publishSnapshot(WaveSnapshot snapshot)
+	{
+		latestSnapshot.set(snapshot);
+		eventBus.post(snapshot);
+
+		LiveStateServer server = liveStateServer;
+		if (server != null)
 		{
-			int playerEncoded = playerLocation.getX() + (256 * playerLocation.getY());
-			urlBuilder.append("#").append(playerEncoded);
+			server.publishSnapshot(snapshot);
 		}
+	}
+
+	/**
+	 * The most recently captured wave spawn or reinforcements, safe to read from any thread.
+	 */
+	@Nullable
+	public WaveSnapshot getLatestSnapshot()
+	{
+		return latestSnapshot.get();
+	}
 
-		// Add suffixes
-		if (isSpawnUrl && !isReinforcement)
+	private void recordCurrentWave()
+	{
+		WaveRecord record = currentWaveRecord();
+		if (record == null)
 		{
-			urlBuilder.append("_ws");
+			return;
 		}
-		if (mantimayhem3Active)
+
+		runWaves.add(record);
+
+		// Recorded once; a wave that was never completed must not be recorded again under the next wave number
+		waveSpawns.clear();
+		reinforcementSpawns.clear();
+	}
+
+	@Nullable
+	private WaveRecord currentWaveRecord()
+	{
+		if (currentWave <= 0 || waveSpawns.isEmpty())
 		{
-			urlBuilder.append("_mm3");
+			return null;
 		}
 
-		return urlBuilder.toString();
+		return new WaveRecord(
+			currentWave,
+			encodeSpawns(waveSpawns, true, false),
+			encodeSpawns(reinforcementSpawns, true, true),
+			encodePlayerLocation(playerLocationAtWaveSpawn),
+			encodePlayerLocation(playerLocationAtReinforcements),
+			reinforcementSpawns.isEmpty() ? -1 : reinforcementTick,
+			mantimayhem3Active,
+			waveModifiers,
+			waveTimings.duration(),
+			despawnTicks());
 	}
 
-	private void updateCurrentWaveUrl(boolean isReinforcements)
+	private int[] despawnTicks()
 	{
-		if (currentWave <= 0)
+		int[] despawnTicks = new int[waveSpawns.size() + reinforcementSpawns.size()];
+		for (int i = 0; i < waveSpawns.size(); i++)
+		{
+			despawnTicks[i] = waveTimings.despawnTick(waveSpawns.get(i).getNpcIndex(), false);
+		}
+		for (int i = 0; i < reinforcementSpawns.size(); i++)
+		{
+			despawnTicks[waveSpawns.size() + i] = waveTimings.despawnTick(reinforcementSpawns.get(i).getNpcIndex(), true);
+		}
+		return despawnTicks;
+	}
+
+	private void finishRun()
+	{
+		if (runWaves.isEmpty())
 		{
 			return;
 		}
 
-		List<NpcSpawn> spawns;
-		Point playerLocation;
+		RunRecord run = new RunRecord(runStartTime, new ArrayList<>(runWaves), false);
+		runWaves.clear();
+		// Not deferred work: saving the run and updating the filter touch the disk, and copying the index can take
+		// milliseconds on a large archive
+		executor.execute(() ->
+		{
+			runHistory.add(run);
+			spawnIndex.add(run);
+			spawnFilter.update();
+			refreshPanelHistory();
+		});
+	}
 
-		if (!isReinforcements)
+	private void refreshPanelHistory()
+	{
+		ColosseumWavesPanel panel = this.panel;
+		if (panel != null)
+		{
+			panel.refreshHistory();
+		}
+	}
+
+	/**
+	 * Imports the LoS links in a text file into the run history.
+	 *
+	 * @param callback receives the number of links imported, or -1 if the file could not be read
+	 */
+	public void importLinks(Path file, IntConsumer callback)
+	{
+		executor.execute(() ->
 		{
-			spawns = waveSpawns;
-			if (spawns.isEmpty())
+			int imported = -1;
+			try
 			{
-				return;
+				imported = runImporter.importLinks(file);
+			}
+			catch (IOException | RuntimeException e)
+			{
+				log.warn("Unable to import LoS links from {}", file, e);
 			}
-			playerLocation = config.includePlayerLocationSpawns() ? playerLocationAtWaveSpawn : null;
 
-			String url = buildLoSUrl(spawns, playerLocation, true, false);
-			panel.setWaveSpawnUrl(currentWave, url);
-		}
-		else
+			// Batches saved before a failure are in the history too
+			try
+			{
+				refreshPanelHistory();
+				spawnFilter.update();
+			}
+			finally
+			{
+				// The panel disables its button until this is called
+				callback.accept(imported);
+			}
+		});
+	}
+
+	/**
+	 * Writes the LoS link of every archived wave to a CSV file.
+	 *
+	 * @param callback receives the number of links written, or -1 if the file could not be written
+	 */
+	public void exportLinks(Path file, LongConsumer callback)
+	{
+		LinkExporter exporter = new LinkExporter(includePlayerAtSpawn, includePlayerAtReinforcements);
+		executor.execute(() ->
 		{
-			spawns = reinforcementSpawns;
-			if (spawns.isEmpty())
+			long exported = -1;
+			try
 			{
-				return;
+				exported = exporter.export(runStore::forEachRun, file, Runtime.getRuntime().availableProcessors());
+			}
+			catch (IOException | RuntimeException e)
+			{
+				log.warn("Unable to export LoS links to {}", file, e);
 			}
-			playerLocation = config.includePlayerLocationReinforcements() ? playerLocationAtReinforcements : null;
+			finally
+			{
+				// The panel disables its button until this is called
+				callback.accept(exported);
+			}
+		});
+	}
 
-			String url = buildLoSUrl(spawns, playerLocation, true, true);
-			panel.setWaveReinforcementUrl(currentWave, url);
+	public int getHistorySize()
+	{
+		return runHistory.size();
+	}
+
+	public void loadRun(int index, Consumer<RunRecord> callback)
+	{
+		executor.execute(() -> callback.accept(runHistory.get(index)));
+	}
+
+	/**
+	 * Bundles the run in progress, including the wave currently being fought.
+	 * Must be called on the client thread.
+	 *
+	 * @return the bundle, or null if no waves have been captured this run
+	 */
+	@Nullable
+	public String getCurrentRunBundle()
+	{
+		RunRecord run = getCurrentRun();
+		return run == null ? null : new RunBundle().encode(run);
+	}
+
+	/**
+	 * The run in progress, including the wave currently being fought. Must be called on the client thread.
+	 *
+	 * @return the run, or null if no waves have been captured this run
+	 */
+	@Nullable
+	public RunRecord getCurrentRun()
+	{
+		List<WaveRecord> waves = new ArrayList<>(runWaves);
+		WaveRecord current = currentWaveRecord();
+		if (current != null)
+		{
+			waves.add(current);
 		}
+		return waves.isEmpty() ? null : new RunRecord(runStartTime, waves, false);
+	}
+
+	/**
+	 * Ranks every archived run by how closely its spawns match {@code reference}.
+	 */
+	public void findClosestRuns(RunRecord reference, int limit, Consumer<List<RunDiff.Match>> callback)
+	{
+		executor.execute(() ->
+		{
+			RunDiff.Ranker ranker = new RunDiff.Ranker(reference, limit);
+			runStore.forEachRun(ranker::accept);
+			callback.accept(ranker.results());
+		});
+	}
+
+	public void analyzeArchive(Consumer<RunAnalysis> callback)
+	{
+		executor.execute(() -> callback.accept(RunAnalysis.analyze(runStore.readArchive())));
 	}
 
 	private void resetState()
 	{
+		recordCurrentWave();
+		finishRun();
 		inColosseum = false;
 		mantimayhem3Active = false;
+		waveModifiers = 0;
 		clearCurrentWaveState();
+		waveTimings.clear();
 	}
 
 	private void clearCurrentWaveState()
@@ -561,16 +1481,37 @@ public class ColosseumWavesPlugin extends Plugin
 
 		waveSpawns.clear();
 		reinforcementSpawns.clear();
+		waveNpcs.clear();
+		waveSpawnHandled = false;
 		playerLocationAtWaveSpawn = null;
 		playerLocationAtReinforcements = null;
+		reinforcementTick = -1;
+		spawnTraceId = -1;
+		captureTraceId = -1;
 
 		manticoreHandler.clear();
+		pillarStacks.clear();
+		LiveStateFile file = liveStateFile;
+		if (file != null)
+		{
+			// No wave in progress
+			file.publish(0, client.getTickCount(), LosUrls.NO_PLAYER, false, 0, null, null, null, 0);
+		}
+		if (!manticoreAttacks.isEmpty())
+		{
+			manticoreAttacks = "";
+			if (panel != null)
+			{
+				panel.setManticoreAttacks("");
+			}
+		}
 	}
 
 	private void checkMantimayhem3Status()
 	{
 		// Simply check if Mantimayhem is level 3 or higher
-		int mantimayhemLevel = client.getVarbitValue(COLOSSEUM_MODIFIER_MANTIMAYHEM_STACKS_CLIENT);
+		waveModifiers = colosseumModifiers.getState();
+		int mantimayhemLevel = ColosseumModifiers.level(waveModifiers, ColosseumModifiers.Modifier.MANTIMAYHEM);
 		boolean mm3Active = mantimayhemLevel >= 3;
 
 		// Only log when status changes
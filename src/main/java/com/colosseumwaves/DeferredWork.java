@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.PriorityQueue;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Work that does not need to happen the moment it is triggered, run from the client thread a little at a time.
+ * <p>
+ * Tasks are queued by priority, oldest first within a priority, and {@link #drain(long)} runs them until its time
+ * budget is spent, leaving the rest for the next call. Capture work that has to see the game state of the current
+ * tick must not be queued here, and nor must anything that blocks, such as disk reads and writes, which belong on
+ * the plugin's executor. Only used from the client thread; the counters may be read from any thread.
+ */
+@Slf4j
+final class DeferredWork
+{
+	enum Priority
+	{
+		HIGH,
+		NORMAL,
+		LOW
+	}
+
+	@RequiredArgsConstructor
+	private static final class Task implements Comparable<Task>
+	{
+		private final Priority priority;
+		private final long sequence;
+		private final Runnable runnable;
+
+		@Override
+		public int compareTo(Task other)
+		{
+			int byPriority = priority.compareTo(other.priority);
+			return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	private final PriorityQueue<Task> queue = new PriorityQueue<>();
+	private long nextSequence;
+
+	@Getter
+	private volatile int queueDepth;
+	@Getter
+	private volatile int maxQueueDepth;
+	// Drains that ran out of budget with work still queued
+	@Getter
+	private volatile int overruns;
+	@Getter
+	private volatile long tasksRun;
+
+	void submit(Priority priority, Runnable runnable)
+	{
+		queue.add(new Task(priority, nextSequence++, runnable));
+		queueDepth = queue.size();
+		if (queueDepth > maxQueueDepth)
+		{
+			maxQueueDepth = queueDepth;
+		}
+	}
+
+	/**
+	 * Runs queued tasks until the queue is empty or {@code budgetNanos} has passed. At least one task runs if any
+	 * are queued, so a task that alone exceeds the budget cannot stall the queue.
+	 */
+	void drain(long budgetNanos)
+	{
+		if (queue.isEmpty())
+		{
+			return;
+		}
+
+		long start = System.nanoTime();
+		do
+		{
+			run(queue.poll());
+		}
+		while (!queue.isEmpty() && System.nanoTime() - start < budgetNanos);
+
+		if (!queue.isEmpty())
+		{
+			overruns++;
+		}
+		queueDepth = queue.size();
+	}
+
+	/**
+	 * Drops everything queued without running it, such as when the plugin shuts down.
+	 */
+	void clear()
+	{
+		queue.clear();
+		queueDepth = 0;
+	}
+
+	private void run(Task task)
+	{
+		tasksRun++;
+		try
+		{
+			task.runnable.run();
+		}
+		catch (RuntimeException e)
+		{
+			log.warn("Deferred task failed", e);
+		}
+	}
+}
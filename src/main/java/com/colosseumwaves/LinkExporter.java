@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Writes the LoS links of every stored wave to a file, encoding them in parallel.
+ * <p>
+ * Runs are read on the calling thread and handed to a pool in chunks. Each worker encodes a chunk into a buffer
+ * sized from the chunk's own waves, and the caller writes finished chunks in their original order while only a few are in flight, so an
+ * archive of any size streams through in constant memory. The links are the ones {@link WaveRecord#getSpawnUrl} and
+ * {@link WaveRecord#getReinforcementUrl} give, the same as the plugin builds when capturing.
+ */
+final class LinkExporter
+{
+	static final String HEADER = "start_time,wave,capture,url\n";
+
+	private static final int CHUNK_RUNS = 256;
+	// Chunks in flight per thread, enough to keep workers busy while the writer catches up
+	private static final int CHUNKS_PER_THREAD = 2;
+	// Typical size of one CSV line, used to size each chunk's buffer up front
+	private static final int LINE_ESTIMATE = 128;
+
+	private final boolean includePlayerAtSpawn;
+	private final boolean includePlayerAtReinforcements;
+
+	LinkExporter(boolean includePlayerAtSpawn, boolean includePlayerAtReinforcements)
+	{
+		this.includePlayerAtSpawn = includePlayerAtSpawn;
+		this.includePlayerAtReinforcements = includePlayerAtReinforcements;
+	}
+
+	private static final class Chunk
+	{
+		private final String text;
+		private final int links;
+
+		private Chunk(String text, int links)
+		{
+			this.text = text;
+			this.links = links;
+		}
+	}
+
+	/**
+	 * Exports every run {@code source} produces.
+	 *
+	 * @return the number of links written
+	 */
+	long export(Consumer<Consumer<RunRecord>> source, Path file, int parallelism) throws IOException
+	{
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+		int maxInFlight = parallelism * CHUNKS_PER_THREAD;
+		long[] links = {0};
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			writer.write(HEADER);
+			List<RunRecord> chunk = new ArrayList<>(CHUNK_RUNS);
+			try
+			{
+				source.accept(run ->
+				{
+					chunk.add(run);
+					if (chunk.size() == CHUNK_RUNS)
+					{
+						submit(pool, inFlight, new ArrayList<>(chunk));
+						chunk.clear();
+						while (inFlight.size() > maxInFlight)
+						{
+							links[0] += write(writer, inFlight.poll());
+						}
+					}
+				});
+
+				if (!chunk.isEmpty())
+				{
+					submit(pool, inFlight, chunk);
+				}
+				while (!inFlight.isEmpty())
+				{
+					links[0] += write(writer, inFlight.poll());
+				}
+			}
+			catch (UncheckedIOException e)
+			{
+				throw e.getCause();
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+		return links[0];
+	}
+
+	private void submit(ForkJoinPool pool, ArrayDeque<Future<Chunk>> inFlight, List<RunRecord> runs)
+	{
+		inFlight.add(pool.submit(() -> encode(runs)));
+	}
+
+	private static int write(Writer writer, Future<Chunk> future)
+	{
+		Chunk chunk = result(future);
+		try
+		{
+			writer.write(chunk.text);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return chunk.links;
+	}
+
+	private static Chunk result(Future<Chunk> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("link export interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("link export failed", e.getCause());
+		}
+	}
+
+	private Chunk encode(List<RunRecord> runs)
+	{
+		int waves = 0;
+		for (RunRecord run : runs)
+		{
+			waves += run.getWaves().size();
+		}
+
+		// Most waves have a spawn and a reinforcement link
+		StringBuilder sb = new StringBuilder(waves * 2 * LINE_ESTIMATE);
+		int links = 0;
+		for (RunRecord run : runs)
+		{
+			for (WaveRecord wave : run.getWaves())
+			{
+				if (wave.getSpawns().length > 0)
+				{
+					appendLine(sb, run, wave, "spawn", wave.getSpawns(),
+						includePlayerAtSpawn ? wave.getPlayerAtSpawn() : LosUrls.NO_PLAYER, true);
+					links++;
+				}
+				if (wave.hasReinforcements())
+				{
+					appendLine(sb, run, wave, "reinforcements", wave.getReinforcements(),
+						includePlayerAtReinforcements ? wave.getPlayerAtReinforcements() : LosUrls.NO_PLAYER, false);
+					links++;
+				}
+			}
+		}
+		return new Chunk(sb.toString(), links);
+	}
+
+	private static void appendLine(StringBuilder sb, RunRecord run, WaveRecord wave, String capture, int[] codes, int player,
+		boolean waveSpawn)
+	{
+		sb.append(run.getStartTime()).append(',').append(wave.getWave()).append(',').append(capture).append(',');
+		LosUrls.append(sb, codes, player, waveSpawn, wave.isMantimayhem3());
+		sb.append('\n');
+	}
+}
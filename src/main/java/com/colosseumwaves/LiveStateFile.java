@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import static com.colosseumwaves.LiveStateFileReader.FILE_SIZE;
+import static com.colosseumwaves.LiveStateFileReader.FLAGS_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.FLAG_MANTIMAYHEM3;
+import static com.colosseumwaves.LiveStateFileReader.LAYOUT_VERSION;
+import static com.colosseumwaves.LiveStateFileReader.LONGS;
+import static com.colosseumwaves.LiveStateFileReader.MAGIC;
+import static com.colosseumwaves.LiveStateFileReader.MAGIC_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.MAX_NPCS;
+import static com.colosseumwaves.LiveStateFileReader.MODIFIERS_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.NPCS_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.NPC_COUNT_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.NPC_SIZE;
+import static com.colosseumwaves.LiveStateFileReader.PLAYER_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.SEQUENCE_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.TICK_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.TIME_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.VERSION_OFFSET;
+import static com.colosseumwaves.LiveStateFileReader.WAVE_OFFSET;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the live state file read by {@link LiveStateFileReader}, which documents the layout.
+ * <p>
+ * Each write bumps the sequence number to odd, updates the mapped memory in place and bumps it back to even, so
+ * readers in other processes can tell a finished write from one in progress without any locking. Only used from
+ * the client thread.
+ */
+final class LiveStateFile
+{
+	static final String FILE_NAME = "live-state.bin";
+
+	private final Path file;
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private long sequence;
+
+	LiveStateFile(Path file)
+	{
+		this.file = file;
+	}
+
+	void open() throws IOException
+	{
+		Files.createDirectories(file.getParent());
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			channel = null;
+			throw e;
+		}
+
+		// Carry on from a previous session's sequence so a reader that stayed open never sees it go backwards
+		boolean reused = buffer.getInt(MAGIC_OFFSET) == MAGIC && buffer.getInt(VERSION_OFFSET) == LAYOUT_VERSION;
+		sequence = reused ? buffer.getLong(SEQUENCE_OFFSET) + 1 & ~1L : 0;
+		buffer.putLong(SEQUENCE_OFFSET, sequence);
+		buffer.putInt(VERSION_OFFSET, LAYOUT_VERSION);
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+		publish(0, 0, LosUrls.NO_PLAYER, false, 0, null, null, null, 0);
+	}
+
+	/**
+	 * Stops writing. The mapping itself is released once it is garbage collected.
+	 */
+	void close()
+	{
+		if (channel == null)
+		{
+			return;
+		}
+
+		try
+		{
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			// The mapping stays valid, there is nothing left to do
+		}
+		channel = null;
+		buffer = null;
+	}
+
+	/**
+	 * Replaces the state with a tick's NPCs, the first {@code count} entries of the arrays, each identity being an
+	 * {@link NpcIdentities} identity and each code a {@link SpawnCode}.
+	 */
+	void publish(int wave, int tick, int player, boolean mantimayhem3, int modifiers, int[] npcIds,
+		long[] npcIdentities, int[] codes, int count)
+	{
+		ByteBuffer buffer = this.buffer;
+		if (buffer == null)
+		{
+			return;
+		}
+
+		count = Math.min(count, MAX_NPCS);
+		LONGS.setOpaque(buffer, SEQUENCE_OFFSET, ++sequence);
+		VarHandle.storeStoreFence();
+
+		buffer.putLong(TIME_OFFSET, System.currentTimeMillis());
+		buffer.putInt(WAVE_OFFSET, wave);
+		buffer.putInt(TICK_OFFSET, tick);
+		buffer.putInt(PLAYER_OFFSET, player);
+		buffer.putInt(FLAGS_OFFSET, mantimayhem3 ? FLAG_MANTIMAYHEM3 : 0);
+		buffer.putInt(MODIFIERS_OFFSET, modifiers);
+		buffer.putInt(NPC_COUNT_OFFSET, count);
+		for (int i = 0; i < count; i++)
+		{
+			int offset = NPCS_OFFSET + i * NPC_SIZE;
+			int code = codes[i];
+			buffer.putLong(offset, npcIdentities[i]);
+			buffer.putInt(offset + 8, npcIds[i]);
+			buffer.putShort(offset + 12, (short) SpawnCode.x(code));
+			buffer.putShort(offset + 14, (short) SpawnCode.y(code));
+			buffer.put(offset + 16, (byte) SpawnCode.type(code));
+			buffer.put(offset + 17, (byte) (SpawnCode.isUnchargedAtCapture(code) ? 1 : 0));
+			buffer.put(offset + 18, (byte) SpawnCode.orbs(code));
+		}
+
+		LONGS.setRelease(buffer, SEQUENCE_OFFSET, ++sequence);
+	}
+}
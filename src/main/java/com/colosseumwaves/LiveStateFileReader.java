@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the live state file the plugin keeps up to date every tick while the "Write live state file" option is
+ * on, by default {@code .runelite/colosseum-waves/live-state.bin}.
+ * <p>
+ * The file is memory-mapped, so polling it costs no system calls. The plugin guards each write with a sequence
+ * number that is odd while the write is in progress: {@link #read(Snapshot)} copies the state and retries if
+ * the sequence changed underneath it, so a snapshot is never a mix of two ticks. This class depends only on the
+ * JDK and can be copied into another project as is.
+ * <p>
+ * Layout, little-endian:
+ * <pre>
+ *  0 int  magic "CWLS"       24 int wave           40 int modifiers (2 bits per modifier level)
+ *  4 int  layout version     28 int client tick    44 int NPC count
+ *  8 long sequence           32 int player tile    64 NPCs, 24 bytes each:
+ * 16 long written at (ms)    36 int flags             long identity, int id, short x, short y,
+ *                                                     byte LoS type, byte uncharged, byte orbs, 5 bytes unused
+ * </pre>
+ * An NPC's identity is its index in the low 32 bits and how many times that index has spawned an NPC in the high
+ * 32 bits, so a tool can tell an NPC from the next one the game puts on its index. Tiles are LoS coordinates. The player tile is {@code x + 256 * y}, or -1 when unknown. Manticore orbs are
+ * three 2-bit values, first orb in the high bits: 0 none, 1 magic, 2 ranged, 3 melee.
+ */
+public final class LiveStateFileReader implements Closeable
+{
+	public static final int MAGIC = 'C' | 'W' << 8 | 'L' << 16 | 'S' << 24;
+	public static final int LAYOUT_VERSION = 2;
+	public static final int MAX_NPCS = 64;
+	public static final int FLAG_MANTIMAYHEM3 = 1;
+
+	static final int MAGIC_OFFSET = 0;
+	static final int VERSION_OFFSET = 4;
+	static final int SEQUENCE_OFFSET = 8;
+	static final int TIME_OFFSET = 16;
+	static final int WAVE_OFFSET = 24;
+	static final int TICK_OFFSET = 28;
+	static final int PLAYER_OFFSET = 32;
+	static final int FLAGS_OFFSET = 36;
+	static final int MODIFIERS_OFFSET = 40;
+	static final int NPC_COUNT_OFFSET = 44;
+	static final int NPCS_OFFSET = 64;
+	static final int NPC_SIZE = 24;
+	static final int FILE_SIZE = NPCS_OFFSET + MAX_NPCS * NPC_SIZE;
+
+	static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final int MAX_ATTEMPTS = 1000;
+
+	/**
+	 * A consistent copy of the live state, reused across reads.
+	 */
+	public static final class Snapshot
+	{
+		public long sequence;
+		public long writtenAt;
+		public int wave;
+		public int tick;
+		public int player;
+		public int flags;
+		public int modifiers;
+		public int npcCount;
+		public final int[] npcIds = new int[MAX_NPCS];
+		public final long[] npcIdentities = new long[MAX_NPCS];
+		public final int[] x = new int[MAX_NPCS];
+		public final int[] y = new int[MAX_NPCS];
+		public final int[] type = new int[MAX_NPCS];
+		public final boolean[] uncharged = new boolean[MAX_NPCS];
+		public final int[] orbs = new int[MAX_NPCS];
+
+		/**
+		 * The NPC's index, the low 32 bits of its identity.
+		 */
+		public int npcIndex(int npc)
+		{
+			return (int) npcIdentities[npc];
+		}
+
+		public int playerX()
+		{
+			return player < 0 ? -1 : player % 256;
+		}
+
+		public int playerY()
+		{
+			return player < 0 ? -1 : player / 256;
+		}
+
+		/**
+		 * Orb at {@code position} (0-2) of the NPC's manticore pattern, 0 if none.
+		 */
+		public int orb(int npc, int position)
+		{
+			return orbs[npc] >>> (4 - 2 * position) & 0x3;
+		}
+	}
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+
+	private LiveStateFileReader(FileChannel channel, MappedByteBuffer buffer)
+	{
+		this.channel = channel;
+		this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Maps a live state file.
+	 *
+	 * @throws IOException if the file cannot be mapped or is not a live state file of this layout
+	 */
+	public static LiveStateFileReader open(Path file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try
+		{
+			if (channel.size() < FILE_SIZE)
+			{
+				throw new IOException("Not a live state file: " + file);
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+			LiveStateFileReader reader = new LiveStateFileReader(channel, buffer);
+			if (reader.buffer.getInt(MAGIC_OFFSET) != MAGIC || reader.buffer.getInt(VERSION_OFFSET) != LAYOUT_VERSION)
+			{
+				throw new IOException("Not a live state file of layout " + LAYOUT_VERSION + ": " + file);
+			}
+			return reader;
+		}
+		catch (IOException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The current sequence number, which changes with every write; cheap enough to poll for a new tick.
+	 */
+	public long sequence()
+	{
+		return (long) LONGS.getAcquire(buffer, SEQUENCE_OFFSET);
+	}
+
+	/**
+	 * Copies the current state into {@code into}.
+	 *
+	 * @return false if every attempt overlapped a write, leaving {@code into} unspecified
+	 */
+	public boolean read(Snapshot into)
+	{
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+		{
+			long before = sequence();
+			if ((before & 1) != 0)
+			{
+				Thread.onSpinWait();
+				continue;
+			}
+
+			into.writtenAt = buffer.getLong(TIME_OFFSET);
+			into.wave = buffer.getInt(WAVE_OFFSET);
+			into.tick = buffer.getInt(TICK_OFFSET);
+			into.player = buffer.getInt(PLAYER_OFFSET);
+			into.flags = buffer.getInt(FLAGS_OFFSET);
+			into.modifiers = buffer.getInt(MODIFIERS_OFFSET);
+			int count = Math.min(Math.max(buffer.getInt(NPC_COUNT_OFFSET), 0), MAX_NPCS);
+			into.npcCount = count;
+			for (int i = 0; i < count; i++)
+			{
+				int offset = NPCS_OFFSET + i * NPC_SIZE;
+				into.npcIdentities[i] = buffer.getLong(offset);
+				into.npcIds[i] = buffer.getInt(offset + 8);
+				into.x[i] = buffer.getShort(offset + 12);
+				into.y[i] = buffer.getShort(offset + 14);
+				into.type[i] = buffer.get(offset + 16);
+				into.uncharged[i] = buffer.get(offset + 17) != 0;
+				into.orbs[i] = buffer.get(offset + 18);
+			}
+
+			VarHandle.loadLoadFence();
+			if ((long) LONGS.getOpaque(buffer, SEQUENCE_OFFSET) == before)
+			{
+				into.sequence = before;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One line of the live state stream, written as ASCII JSON straight into a pooled buffer so building a frame
+ * allocates nothing.
+ * <p>
+ * Writes past {@link #CAPACITY} are dropped and mark the frame as overflowed rather than throwing, so a frame
+ * that does not fit is simply not sent.
+ */
+final class LiveStateFrame
+{
+	static final int CAPACITY = 4096;
+
+	final ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+	private boolean overflowed;
+
+	/**
+	 * Clears the frame and starts a new object with its sequence number and event name.
+	 */
+	LiveStateFrame begin(long sequence, String event)
+	{
+		buffer.clear();
+		overflowed = false;
+		put('{');
+		putName("seq");
+		putLong(sequence);
+		put(',');
+		putName("event");
+		putString(event);
+		return this;
+	}
+
+	LiveStateFrame field(String name, int value)
+	{
+		put(',');
+		putName(name);
+		putLong(value);
+		return this;
+	}
+
+	LiveStateFrame field(String name, boolean value)
+	{
+		put(',');
+		putName(name);
+		putAscii(value ? "true" : "false");
+		return this;
+	}
+
+	LiveStateFrame field(String name, String value)
+	{
+		put(',');
+		putName(name);
+		putString(value);
+		return this;
+	}
+
+	/**
+	 * Writes an encoded LoS player tile as {@code [x,y]}, or {@code null} for {@link LosUrls#NO_PLAYER}.
+	 */
+	LiveStateFrame player(String name, int player)
+	{
+		put(',');
+		putName(name);
+		if (player == LosUrls.NO_PLAYER)
+		{
+			putAscii("null");
+			return this;
+		}
+
+		put('[');
+		putLong(player % 256);
+		put(',');
+		putLong(player / 256);
+		put(']');
+		return this;
+	}
+
+	/**
+	 * Writes the first {@code count} {@link SpawnCode}s as {@code [x,y,type,"suffix"]}, the suffix being the
+	 * manticore orb suffix of the LoS link, empty for other NPCs.
+	 */
+	LiveStateFrame npcs(int[] codes, int count)
+	{
+		put(',');
+		putName("npcs");
+		put('[');
+		for (int i = 0; i < count; i++)
+		{
+			int code = codes[i];
+			if (i > 0)
+			{
+				put(',');
+			}
+			put('[');
+			putLong(SpawnCode.x(code));
+			put(',');
+			putLong(SpawnCode.y(code));
+			put(',');
+			putLong(SpawnCode.type(code));
+			put(',');
+			put('"');
+			if (SpawnCode.isUnchargedAtCapture(code))
+			{
+				put('u');
+			}
+			for (int orb = 0; orb < 3 && SpawnCode.orb(code, orb) != SpawnCode.ORB_NONE; orb++)
+			{
+				put(orbChar(SpawnCode.orb(code, orb)));
+			}
+			put('"');
+			put(']');
+		}
+		put(']');
+		return this;
+	}
+
+	/**
+	 * Writes each scheduled manticore's next attack as {@code {"npc":index,"style":"magic","ticks":3}}.
+	 */
+	LiveStateFrame manticores(ManticoreScheduler scheduler, int tick)
+	{
+		put(',');
+		putName("manticores");
+		put('[');
+		boolean first = true;
+		for (int slot = 0; slot < ManticoreScheduler.MAX_MANTICORES; slot++)
+		{
+			if (!scheduler.isActive(slot))
+			{
+				continue;
+			}
+
+			if (!first)
+			{
+				put(',');
+			}
+			first = false;
+			put('{');
+			putName("npc");
+			putLong(NpcIdentities.index(scheduler.identity(slot)));
+			put(',');
+			putName("style");
+			putString(ManticoreScheduler.styleName(scheduler.nextStyle(slot)));
+			put(',');
+			putName("ticks");
+			putLong(Math.max(0, scheduler.nextAttackTick(slot) - tick));
+			put('}');
+		}
+		put(']');
+		return this;
+	}
+
+	/**
+	 * Closes the object, ends the line and flips the buffer for writing.
+	 *
+	 * @return false if the frame overflowed and must not be sent
+	 */
+	boolean finish()
+	{
+		put('}');
+		put('\n');
+		buffer.flip();
+		return !overflowed;
+	}
+
+	private static char orbChar(int orb)
+	{
+		switch (orb)
+		{
+			case SpawnCode.ORB_MAGIC:
+				return 'm';
+			case SpawnCode.ORB_RANGED:
+				return 'r';
+			default:
+				return 'M';
+		}
+	}
+
+	private void putName(String name)
+	{
+		putString(name);
+		put(':');
+	}
+
+	private void putString(String value)
+	{
+		put('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+			{
+				put('\\');
+			}
+			// Every value written here is ASCII; anything else would need escaping the stream does not bother with
+			put(c < 0x20 || c > 0x7E ? '?' : c);
+		}
+		put('"');
+	}
+
+	private void putAscii(String value)
+	{
+		for (int i = 0; i < value.length(); i++)
+		{
+			put(value.charAt(i));
+		}
+	}
+
+	private void putLong(long value)
+	{
+		if (value < 0)
+		{
+			put('-');
+			value = -value;
+		}
+		if (value >= 10)
+		{
+			putLong(value / 10);
+		}
+		put((char) ('0' + value % 10));
+	}
+
+	private void put(char c)
+	{
+		if (buffer.hasRemaining())
+		{
+			buffer.put((byte) c);
+		}
+		else
+		{
+			overflowed = true;
+		}
+	}
+}
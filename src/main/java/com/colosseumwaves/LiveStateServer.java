@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams live capture state to tools on the same machine over a plain TCP socket bound to the loopback address.
+ * <p>
+ * Each capture, and each tick if enabled, is sent to every connected client as one line of JSON, for example
+ * <pre>
+ * {"seq":12,"event":"spawn","wave":3,"tick":4817,"player":[17,14],"mm3":false,"modifiers":0,
+ *  "npcs":[[5,20,1,""],[24,9,4,"urm"]],"url":"https://los.colosim.com/?..."}
+ * </pre>
+ * (on a single line), so {@code nc 127.0.0.1 <port>} is enough to watch it. Sequence numbers are consecutive,
+ * so a gap means frames were dropped.
+ * <p>
+ * Frames are built on the client thread into a fixed pool of buffers and handed to a writer thread that does all
+ * socket I/O without blocking. When no buffer is free, or a client has fallen too far behind, frames are dropped
+ * rather than making the client thread wait.
+ */
+@Slf4j
+final class LiveStateServer implements Runnable
+{
+	private static final int FRAME_POOL_SIZE = 32;
+	private static final int MAX_CLIENTS = 8;
+	// Bytes held for a client that is not reading fast enough, beyond which its frames are dropped
+	private static final int CLIENT_BACKLOG_BYTES = 64 * 1024;
+
+	@RequiredArgsConstructor
+	private static final class Client
+	{
+		private final SocketChannel channel;
+		private final SelectionKey key;
+		private final ByteBuffer backlog = ByteBuffer.allocate(CLIENT_BACKLOG_BYTES);
+	}
+
+	@Getter
+	private final int port;
+
+	private final ArrayBlockingQueue<LiveStateFrame> freeFrames = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+	private final ArrayBlockingQueue<LiveStateFrame> pendingFrames = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+	// Writer thread only
+	private final List<Client> clients = new ArrayList<>();
+	private final ByteBuffer readScratch = ByteBuffer.allocate(256);
+
+	private volatile int clientCount;
+	private final AtomicLong droppedFrames = new AtomicLong();
+	// Client thread only
+	private long sequence;
+
+	private Selector selector;
+	private ServerSocketChannel serverChannel;
+	private Thread thread;
+	private volatile boolean running;
+
+	LiveStateServer(int port)
+	{
+		this.port = port;
+		for (int i = 0; i < FRAME_POOL_SIZE; i++)
+		{
+			freeFrames.add(new LiveStateFrame());
+		}
+	}
+
+	/**
+	 * Binds the loopback port and starts the writer thread.
+	 */
+	void start() throws IOException
+	{
+		selector = Selector.open();
+		try
+		{
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		}
+		catch (IOException e)
+		{
+			closeQuietly();
+			throw e;
+		}
+
+		running = true;
+		thread = new Thread(this, "colosseum-waves-live-state");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Disconnects every client and stops the writer thread.
+	 */
+	void stop()
+	{
+		running = false;
+		selector.wakeup();
+		try
+		{
+			thread.join(1000);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		log.debug("Live state server on port {} stopped, {} frames dropped", port, droppedFrames.get());
+	}
+
+	boolean hasClients()
+	{
+		return clientCount > 0;
+	}
+
+	/**
+	 * Sends a wave spawn or reinforcements capture. Must be called on the client thread.
+	 */
+	void publishSnapshot(WaveSnapshot snapshot)
+	{
+		LiveStateFrame frame = acquire(snapshot.isReinforcements() ? "reinforcements" : "spawn");
+		if (frame == null)
+		{
+			return;
+		}
+
+		int[] spawns = snapshot.getSpawns();
+		frame.field("wave", snapshot.getWave())
+			.field("tick", snapshot.getTick())
+			.player("player", snapshot.getPlayerLocation())
+			.field("mm3", snapshot.isMantimayhem3())
+			.field("modifiers", snapshot.getModifiers())
+			.npcs(spawns, spawns.length)
+			.field("url", snapshot.getUrl());
+		publish(frame);
+	}
+
+	/**
+	 * Sends the state of the arena on this tick: the first {@code count} codes of {@code npcs} and the next
+	 * attack of each scheduled manticore. Must be called on the client thread.
+	 */
+	void publishTick(int wave, int tick, int player, int[] npcs, int count, ManticoreScheduler scheduler)
+	{
+		LiveStateFrame frame = acquire("tick");
+		if (frame == null)
+		{
+			return;
+		}
+
+		frame.field("wave", wave)
+			.field("tick", tick)
+			.player("player", player)
+			.npcs(npcs, count)
+			.manticores(scheduler, tick);
+		publish(frame);
+	}
+
+	@Nullable
+	private LiveStateFrame acquire(String event)
+	{
+		if (clientCount == 0)
+		{
+			return null;
+		}
+
+		long frameSequence = sequence++;
+		LiveStateFrame frame = freeFrames.poll();
+		if (frame == null)
+		{
+			droppedFrames.incrementAndGet();
+			return null;
+		}
+		return frame.begin(frameSequence, event);
+	}
+
+	private void publish(LiveStateFrame frame)
+	{
+		if (!frame.finish())
+		{
+			droppedFrames.incrementAndGet();
+			freeFrames.add(frame);
+			return;
+		}
+
+		pendingFrames.add(frame);
+		selector.wakeup();
+	}
+
+	@Override
+	public void run()
+	{
+		try
+		{
+			while (running)
+			{
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext())
+				{
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid())
+					{
+						continue;
+					}
+
+					if (key.isAcceptable())
+					{
+						accept();
+						continue;
+					}
+
+					Client client = (Client) key.attachment();
+					if (key.isReadable())
+					{
+						read(client);
+					}
+					if (key.isValid() && key.isWritable())
+					{
+						flush(client);
+					}
+				}
+
+				LiveStateFrame frame;
+				while ((frame = pendingFrames.poll()) != null)
+				{
+					for (int i = clients.size() - 1; i >= 0; i--)
+					{
+						send(clients.get(i), frame.buffer);
+					}
+					freeFrames.add(frame);
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Live state server on port {} failed", port, e);
+		}
+		finally
+		{
+			closeQuietly();
+		}
+	}
+
+	private void accept() throws IOException
+	{
+		SocketChannel channel = serverChannel.accept();
+		if (channel == null)
+		{
+			return;
+		}
+		if (clients.size() >= MAX_CLIENTS)
+		{
+			channel.close();
+			return;
+		}
+
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		// Nothing is expected from clients, reads only notice them disconnecting
+		SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+		Client client = new Client(channel, key);
+		key.attach(client);
+		clients.add(client);
+		clientCount = clients.size();
+	}
+
+	private void read(Client client)
+	{
+		try
+		{
+			readScratch.clear();
+			if (client.channel.read(readScratch) < 0)
+			{
+				disconnect(client);
+			}
+		}
+		catch (IOException e)
+		{
+			disconnect(client);
+		}
+	}
+
+	private void send(Client client, ByteBuffer frame)
+	{
+		frame.rewind();
+		if (client.backlog.position() > 0)
+		{
+			// Already behind; queue whole frames only, so the stream never carries half a line
+			if (frame.remaining() <= client.backlog.remaining())
+			{
+				client.backlog.put(frame);
+			}
+			else
+			{
+				droppedFrames.incrementAndGet();
+			}
+			return;
+		}
+
+		try
+		{
+			client.channel.write(frame);
+		}
+		catch (IOException e)
+		{
+			disconnect(client);
+			return;
+		}
+
+		if (frame.hasRemaining())
+		{
+			client.backlog.put(frame);
+			client.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+	}
+
+	private void flush(Client client)
+	{
+		client.backlog.flip();
+		try
+		{
+			client.channel.write(client.backlog);
+		}
+		catch (IOException e)
+		{
+			disconnect(client);
+			return;
+		}
+		finally
+		{
+			client.backlog.compact();
+		}
+
+		if (client.backlog.position() == 0)
+		{
+			client.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	private void disconnect(Client client)
+	{
+		client.key.cancel();
+		try
+		{
+			client.channel.close();
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to close live state client", e);
+		}
+		clients.remove(client);
+		clientCount = clients.size();
+	}
+
+	private void closeQuietly()
+	{
+		for (int i = clients.size() - 1; i >= 0; i--)
+		{
+			disconnect(clients.get(i));
+		}
+		try
+		{
+			if (serverChannel != null)
+			{
+				serverChannel.close();
+			}
+			selector.close();
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to close live state server", e);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+
+/**
+ * A small set of longs, such as NPC identities, without boxing. The members are kept packed in an array, in no
+ * particular order, and lookups scan it, which for the few dozen NPCs of a wave is quicker than hashing.
+ */
+final class LongSet
+{
+	private long[] values = new long[16];
+	private int size;
+
+	/**
+	 * @return whether the value was not already in the set
+	 */
+	boolean add(long value)
+	{
+		if (contains(value))
+		{
+			return false;
+		}
+
+		if (size == values.length)
+		{
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+		return true;
+	}
+
+	/**
+	 * @return whether the value was in the set
+	 */
+	boolean remove(long value)
+	{
+		int position = indexOf(value);
+		if (position < 0)
+		{
+			return false;
+		}
+
+		values[position] = values[--size];
+		return true;
+	}
+
+	boolean contains(long value)
+	{
+		return indexOf(value) >= 0;
+	}
+
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * The member at {@code position}, from 0 to {@link #size()} - 1.
+	 */
+	long get(int position)
+	{
+		return values[position];
+	}
+
+	void clear()
+	{
+		size = 0;
+	}
+
+	private int indexOf(long value)
+	{
+		for (int i = 0; i < size; i++)
+		{
+			if (values[i] == value)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+
+/**
+ * Decodes the query of a Colosseum LoS link back into {@link SpawnCode}s, the reverse of {@link LosUrls}.
+ * <p>
+ * Links are read in a single pass without creating strings, and the decoded codes are kept in a buffer that is
+ * reused between calls. An instance is not thread safe; use one per thread.
+ */
+final class LosUrlDecoder
+{
+	private int[] codes = new int[16];
+	private int count;
+	private int player;
+	private boolean waveSpawn;
+	private boolean mantimayhem3;
+
+	/**
+	 * Decodes a link, or just its query, between {@code start} and {@code end}.
+	 *
+	 * @return false if the text is not a link in the format the plugin writes
+	 */
+	boolean decode(CharSequence text, int start, int end)
+	{
+		count = 0;
+		player = LosUrls.NO_PLAYER;
+		waveSpawn = false;
+		mantimayhem3 = false;
+
+		int i = start;
+		for (int j = start; j < end; j++)
+		{
+			if (text.charAt(j) == '?')
+			{
+				i = j + 1;
+				break;
+			}
+		}
+
+		while (i < end && text.charAt(i) != '#' && text.charAt(i) != '_')
+		{
+			if (i + 5 > end)
+			{
+				return false;
+			}
+
+			int x = twoDigits(text, i);
+			int y = twoDigits(text, i + 2);
+			int type = text.charAt(i + 4) - '0';
+			if (x < 0 || y < 0 || type < 1 || type > 6)
+			{
+				return false;
+			}
+			i += 5;
+
+			int suffixStart = i;
+			while (i < end && isSuffixChar(text.charAt(i)))
+			{
+				i++;
+			}
+			if (suffixStart != i && type != SpawnCode.MANTICORE)
+			{
+				// Only manticores have an orb state
+				return false;
+			}
+			int state = suffixStart == i ? SpawnCode.NONE : SpawnCode.parseManticoreState(text, suffixStart, i);
+			if (state < 0)
+			{
+				return false;
+			}
+
+			if (count == codes.length)
+			{
+				codes = Arrays.copyOf(codes, count * 2);
+			}
+			codes[count++] = SpawnCode.pack(x, y, type, state);
+
+			if (i < end && text.charAt(i) == '.')
+			{
+				i++;
+			}
+		}
+
+		if (i < end && text.charAt(i) == '#')
+		{
+			int digitsStart = ++i;
+			int value = 0;
+			while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9' && i - digitsStart < 9)
+			{
+				value = value * 10 + text.charAt(i++) - '0';
+			}
+			if (i == digitsStart)
+			{
+				return false;
+			}
+			player = value;
+		}
+
+		while (i < end)
+		{
+			if (regionMatches(text, i, end, "_ws"))
+			{
+				waveSpawn = true;
+				i += 3;
+			}
+			else if (regionMatches(text, i, end, "_mm3"))
+			{
+				mantimayhem3 = true;
+				i += 4;
+			}
+			else
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int getCount()
+	{
+		return count;
+	}
+
+	int getCode(int index)
+	{
+		return codes[index];
+	}
+
+	int[] copyCodes()
+	{
+		return Arrays.copyOf(codes, count);
+	}
+
+	int getPlayer()
+	{
+		return player;
+	}
+
+	boolean isWaveSpawn()
+	{
+		return waveSpawn;
+	}
+
+	boolean isMantimayhem3()
+	{
+		return mantimayhem3;
+	}
+
+	private static int twoDigits(CharSequence text, int i)
+	{
+		int tens = text.charAt(i) - '0';
+		int ones = text.charAt(i + 1) - '0';
+		if (tens < 0 || tens > 9 || ones < 0 || ones > 9)
+		{
+			return -1;
+		}
+		return tens * 10 + ones;
+	}
+
+	private static boolean isSuffixChar(char c)
+	{
+		return c == 'u' || c == 'm' || c == 'r' || c == 'M';
+	}
+
+	private static boolean regionMatches(CharSequence text, int i, int end, String token)
+	{
+		if (i + token.length() > end)
+		{
+			return false;
+		}
+		for (int j = 0; j < token.length(); j++)
+		{
+			if (text.charAt(i + j) != token.charAt(j))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+/**
+ * Builds Colosseum LoS links from packed {@link SpawnCode}s.
+ */
+final class LosUrls
+{
+	static final String BASE_URL = "https://los.colosim.com/?";
+	static final int NO_PLAYER = -1;
+
+	private LosUrls()
+	{
+	}
+
+	static String build(int[] codes, int player, boolean waveSpawn, boolean mantimayhem3)
+	{
+		StringBuilder sb = new StringBuilder(BASE_URL.length() + codes.length * 10 + 16);
+		append(sb, codes, player, waveSpawn, mantimayhem3);
+		return sb.toString();
+	}
+
+	static void append(StringBuilder sb, int[] codes, int player, boolean waveSpawn, boolean mantimayhem3)
+	{
+		sb.append(BASE_URL);
+		for (int code : codes)
+		{
+			SpawnCode.append(sb, code);
+			sb.append('.');
+		}
+
+		if (player != NO_PLAYER)
+		{
+			sb.append('#').append(player);
+		}
+
+		if (waveSpawn)
+		{
+			sb.append("_ws");
+		}
+		if (mantimayhem3)
+		{
+			sb.append("_mm3");
+		}
+	}
+
+	/**
+	 * Replaces the {@code #player} fragment of a link built by {@link #append}, leaving the NPC codes and the
+	 * other flags as they are.
+	 *
+	 * @param player the encoded player tile, or {@link #NO_PLAYER} to drop the fragment
+	 */
+	static String withPlayer(String url, int player)
+	{
+		// The codes are letters, digits and dots, so the flags start at the first '#' or '_' after them
+		int flagsStart = url.length();
+		for (int i = BASE_URL.length(); i < url.length(); i++)
+		{
+			char c = url.charAt(i);
+			if (c == '#' || c == '_')
+			{
+				flagsStart = i;
+				break;
+			}
+		}
+
+		int playerEnd = flagsStart;
+		if (playerEnd < url.length() && url.charAt(playerEnd) == '#')
+		{
+			playerEnd++;
+			while (playerEnd < url.length() && url.charAt(playerEnd) != '_')
+			{
+				playerEnd++;
+			}
+		}
+
+		StringBuilder sb = new StringBuilder(url.length() + 8);
+		sb.append(url, 0, flagsStart);
+		if (player != NO_PLAYER)
+		{
+			sb.append('#').append(player);
+		}
+		sb.append(url, playerEnd, url.length());
+		return sb.toString();
+	}
+
+	/**
+	 * Encodes a LoS player tile the way the LoS tool expects it in the {@code #player} fragment.
+	 */
+	static int encodePlayer(int losX, int losY)
+	{
+		return losX + (256 * losY);
+	}
+}
@@ -46,6 +46,8 @@ public class ManticoreHandler
 	@Inject
 	private Client client;
 
+	@Inject
+	private NpcIdentities npcIdentities;
 
 	// Callback for when a manticore pattern is completed
 	@Setter
@@ -59,7 +61,11 @@ public class ManticoreHandler
 	private static final int RANGED_ORB_GRAPHIC_ID = SpotanimID.VFX_MANTICORE_01_PROJECTILE_RANGED_01;
 	private static final int MELEE_ORB_GRAPHIC_ID = SpotanimID.VFX_MANTICORE_01_PROJECTILE_MELEE_01;
 
-	private final Map<Integer, ManticoreData> manticores = new HashMap<>();
+	// Keyed by NpcIdentities identity, so data of a despawned manticore is never attached to the next NPC on its index
+	private final Map<Long, ManticoreData> manticores = new HashMap<>();
+
+	@Getter
+	private final ManticoreScheduler scheduler = new ManticoreScheduler();
 
 	private enum OrbType
 	{
@@ -75,6 +81,7 @@ public class ManticoreHandler
 	private static class ManticoreData
 	{
 		List<OrbType> orbOrder = new ArrayList<>();  // Orb order, max 3 entries
+		int[] orbTicks = new int[3];  // Tick each orb in orbOrder appeared on
 		boolean wasChargedAtReinforcements = false;  // Whether it had any orbs when reinforcements spawned
 		Set<Integer> lastSpotAnims = new HashSet<>();  // Track the last set of spot anims we saw
 
@@ -112,9 +119,9 @@ public class ManticoreHandler
 		}
 	}
 
-	public String getManticoreLosSuffix(int npcIndex)
+	public String getManticoreLosSuffix(long identity)
 	{
-		ManticoreData data = manticores.get(npcIndex);
+		ManticoreData data = manticores.get(identity);
 		if (data == null)
 		{
 			return "u";
@@ -122,9 +129,9 @@ public class ManticoreHandler
 		return data.getLosSuffix(isMantimayhem3Active());
 	}
 
-	public String getManticoreSpawnLosSuffix(int npcIndex, boolean isReinforcement)
+	public String getManticoreSpawnLosSuffix(long identity, boolean isReinforcement)
 	{
-		ManticoreData data = manticores.get(npcIndex);
+		ManticoreData data = manticores.get(identity);
 		if (data == null)
 		{
 			return "u";
@@ -161,9 +168,9 @@ public class ManticoreHandler
 		}
 	}
 
-	public boolean hasCompletePattern(int npcIndex)
+	public boolean hasCompletePattern(long identity)
 	{
-		ManticoreData data = manticores.get(npcIndex);
+		ManticoreData data = manticores.get(identity);
 		if (data == null)
 		{
 			return false;
@@ -176,6 +183,7 @@ public class ManticoreHandler
 	public void clear()
 	{
 		manticores.clear();
+		scheduler.clear();
 	}
 
 	public void captureSpawnStates(boolean isReinforcement)
@@ -183,7 +191,7 @@ public class ManticoreHandler
 		if (isReinforcement)
 		{
 			// Mark which manticores had any orbs at reinforcement time
-			for (Map.Entry<Integer, ManticoreData> entry : manticores.entrySet())
+			for (Map.Entry<Long, ManticoreData> entry : manticores.entrySet())
 			{
 				ManticoreData data = entry.getValue();
 				// Track if it had ANY orbs at reinforcements, not just fully charged
@@ -194,7 +202,7 @@ public class ManticoreHandler
 
 	public void onNpcSpawned(NPC npc)
 	{
-		int index = npc.getIndex();
+		long identity = npcIdentities.current(npc.getIndex());
 		ManticoreData data = new ManticoreData();
 		// Initialize with current spot anims
 		for (ActorSpotAnim spotAnim : npc.getSpotAnims())
@@ -204,14 +212,14 @@ public class ManticoreHandler
 				data.lastSpotAnims.add(spotAnim.getId());
 			}
 		}
-		manticores.put(index, data);
+		manticores.put(identity, data);
 	}
 
 	public void ensureManticoreTracked(NPC npc)
 	{
-		int index = npc.getIndex();
-		// Only add if not already tracked
-		if (!manticores.containsKey(index))
+		long identity = npcIdentities.current(npc.getIndex());
+		// Only add if not already tracked; a manticore that previously had this index has another identity
+		if (!manticores.containsKey(identity))
 		{
 			ManticoreData data = new ManticoreData();
 			// Initialize with current spot anims
@@ -222,14 +230,14 @@ public class ManticoreHandler
 					data.lastSpotAnims.add(spotAnim.getId());
 				}
 			}
-			manticores.put(index, data);
+			manticores.put(identity, data);
 		}
 	}
 
 	public void checkNPCGraphics(NPC npc)
 	{
-		int index = npc.getIndex();
-		ManticoreData data = manticores.get(index);
+		long identity = npcIdentities.current(npc.getIndex());
+		ManticoreData data = manticores.get(identity);
 		if (data == null)
 		{
 			// Manticore not in tracking map
@@ -260,7 +268,7 @@ public class ManticoreHandler
 					if (orbType != null)
 					{
 						// This is a new orb appearing
-						addOrbToPattern(data, orbType, index);
+						addOrbToPattern(data, orbType, identity);
 					}
 				}
 			}
@@ -287,16 +295,29 @@ public class ManticoreHandler
 		return null;
 	}
 
-	private void addOrbToPattern(ManticoreData data, OrbType orbType, int npcIndex)
+	private void addOrbToPattern(ManticoreData data, OrbType orbType, long identity)
 	{
-		// Check if this is a new orb type in the sequence
-		if (data.orbOrder.isEmpty() || data.orbOrder.get(data.orbOrder.size() - 1) != orbType)
+		// Check if this is a new orb type in the sequence. A pattern has at most 3 orbs; checkNPCGraphics only stops
+		// looking once there are 3, so two orbs first seen on the same tick must not push a fourth
+		if (data.orbOrder.size() < 3
+			&& (data.orbOrder.isEmpty() || data.orbOrder.get(data.orbOrder.size() - 1) != orbType))
 		{
-			boolean wasIncomplete = !hasCompletePattern(npcIndex);
+			boolean wasIncomplete = !hasCompletePattern(identity);
+			data.orbTicks[data.orbOrder.size()] = client.getTickCount();
 			data.orbOrder.add(orbType);
 
+			if (data.isCharged())
+			{
+				int[] orbs = new int[3];
+				for (int i = 0; i < orbs.length; i++)
+				{
+					orbs[i] = SpawnCode.orbFromChar(data.orbOrder.get(i).code);
+				}
+				scheduler.schedule(identity, orbs, data.orbTicks);
+			}
+
 			// Check if pattern just became complete
-			if (wasIncomplete && hasCompletePattern(npcIndex))
+			if (wasIncomplete && hasCompletePattern(identity))
 			{
 				if (onPatternCompleteCallback != null)
 				{
@@ -308,6 +329,7 @@ public class ManticoreHandler
 
 	public void checkAllManticores()
 	{
+		scheduler.advance(client.getTickCount());
 		WorldView wv = client.getTopLevelWorldView();
 		if (wv == null)
 		{
@@ -320,6 +342,8 @@ public class ManticoreHandler
 				continue;
 			}
 			checkNPCGraphics(npc);
+			scheduler.markSeen(npcIdentities.current(npc.getIndex()));
 		}
+		scheduler.removeUnseen();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+
+/**
+ * Predicts when each charged manticore attacks next and with which style, from the ticks its orbs appeared on.
+ * <p>
+ * A charged manticore is assumed to fire its three orbs in order at the same spacing the orbs appeared at, starting
+ * one spacing after the last orb. Nothing later is predicted: the time until the next volley is not exposed by the
+ * game and the attack itself is not observed, so a manticore is dropped after its third attack. Pending attacks sit
+ * in a fixed-size timing wheel of intrusive lists over preallocated arrays, so tracking any number of manticores
+ * allocates nothing per tick. Only used from the client thread.
+ */
+final class ManticoreScheduler
+{
+	static final int MAX_MANTICORES = 16;
+
+	private static final int WHEEL_SIZE = 64;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int NONE = -1;
+	private static final String[] STYLE_NAMES = {"", "magic", "ranged", "melee"};
+
+	// Head of each wheel bucket and the next entry in the same bucket, by slot
+	private final int[] buckets = new int[WHEEL_SIZE];
+	private final int[] next = new int[MAX_MANTICORES];
+
+	// NpcIdentities identity of the manticore in each slot
+	private final long[] identities = new long[MAX_MANTICORES];
+	private final int[] styles = new int[MAX_MANTICORES * 3];
+	private final int[] spacings = new int[MAX_MANTICORES];
+	private final int[] steps = new int[MAX_MANTICORES];
+	private final int[] dueTicks = new int[MAX_MANTICORES];
+	private final boolean[] active = new boolean[MAX_MANTICORES];
+	private final boolean[] seen = new boolean[MAX_MANTICORES];
+	private int lastTick = NONE;
+
+	ManticoreScheduler()
+	{
+		clear();
+	}
+
+	/**
+	 * Starts predicting attacks for a manticore that has just shown all three of its orbs.
+	 *
+	 * @param identity the manticore's {@link NpcIdentities} identity
+	 * @param orbs the orbs in the order they appeared, as {@link SpawnCode} orb values
+	 * @param orbTicks the tick each orb appeared on
+	 */
+	void schedule(long identity, int[] orbs, int[] orbTicks)
+	{
+		int slot = slotOf(identity);
+		if (slot == NONE)
+		{
+			slot = freeSlot();
+			if (slot == NONE)
+			{
+				return;
+			}
+		}
+		else
+		{
+			unlink(slot);
+		}
+
+		int spacing = Math.max(1, (orbTicks[2] - orbTicks[0]) / 2);
+		identities[slot] = identity;
+		System.arraycopy(orbs, 0, styles, slot * 3, 3);
+		spacings[slot] = spacing;
+		steps[slot] = 0;
+		active[slot] = true;
+		seen[slot] = true;
+		link(slot, orbTicks[2] + spacing);
+		while (active[slot] && lastTick != NONE && dueTicks[slot] <= lastTick)
+		{
+			// Already passed buckets would only be visited again once the wheel wraps
+			unlink(slot);
+			step(slot);
+		}
+	}
+
+	/**
+	 * Marks a manticore as still in the arena for {@link #removeUnseen()}.
+	 */
+	void markSeen(long identity)
+	{
+		int slot = slotOf(identity);
+		if (slot != NONE)
+		{
+			seen[slot] = true;
+		}
+	}
+
+	/**
+	 * Stops predicting for manticores not marked seen since the last call.
+	 */
+	void removeUnseen()
+	{
+		for (int slot = 0; slot < MAX_MANTICORES; slot++)
+		{
+			if (active[slot] && !seen[slot])
+			{
+				unlink(slot);
+				active[slot] = false;
+			}
+			seen[slot] = false;
+		}
+	}
+
+	/**
+	 * Moves the wheel up to {@code tick}, stepping every manticore whose predicted attack has passed on to its next
+	 * attack, and dropping those whose volley is over.
+	 */
+	void advance(int tick)
+	{
+		if (lastTick == NONE || tick - lastTick > WHEEL_SIZE)
+		{
+			// First tick, or too far behind to turn the wheel tick by tick
+			lastTick = tick - 1;
+			for (int slot = 0; slot < MAX_MANTICORES; slot++)
+			{
+				while (active[slot] && dueTicks[slot] < tick)
+				{
+					unlink(slot);
+					step(slot);
+				}
+			}
+		}
+
+		while (lastTick < tick)
+		{
+			lastTick++;
+			int bucket = lastTick & WHEEL_MASK;
+			int slot = buckets[bucket];
+			int previous = NONE;
+			while (slot != NONE)
+			{
+				int following = next[slot];
+				if (dueTicks[slot] <= lastTick)
+				{
+					// Attack happened; take it out of this bucket and queue the next one
+					if (previous == NONE)
+					{
+						buckets[bucket] = following;
+					}
+					else
+					{
+						next[previous] = following;
+					}
+					step(slot);
+				}
+				else
+				{
+					previous = slot;
+				}
+				slot = following;
+			}
+		}
+	}
+
+	boolean isActive(int slot)
+	{
+		return active[slot];
+	}
+
+	long identity(int slot)
+	{
+		return identities[slot];
+	}
+
+	int nextAttackTick(int slot)
+	{
+		return dueTicks[slot];
+	}
+
+	/**
+	 * Style of the next attack, as a {@link SpawnCode} orb value.
+	 */
+	int nextStyle(int slot)
+	{
+		return styles[slot * 3 + steps[slot]];
+	}
+
+	static String styleName(int orb)
+	{
+		return orb > 0 && orb < STYLE_NAMES.length ? STYLE_NAMES[orb] : "unknown";
+	}
+
+	void clear()
+	{
+		Arrays.fill(buckets, NONE);
+		Arrays.fill(next, NONE);
+		Arrays.fill(active, false);
+		lastTick = NONE;
+	}
+
+	/**
+	 * Queues the next attack of a manticore already taken out of the wheel, or drops it after its third attack.
+	 */
+	private void step(int slot)
+	{
+		if (++steps[slot] < 3)
+		{
+			link(slot, dueTicks[slot] + spacings[slot]);
+		}
+		else
+		{
+			active[slot] = false;
+		}
+	}
+
+	private void link(int slot, int dueTick)
+	{
+		dueTicks[slot] = dueTick;
+		int bucket = dueTick & WHEEL_MASK;
+		next[slot] = buckets[bucket];
+		buckets[bucket] = slot;
+	}
+
+	private void unlink(int slot)
+	{
+		int bucket = dueTicks[slot] & WHEEL_MASK;
+		if (buckets[bucket] == slot)
+		{
+			buckets[bucket] = next[slot];
+			return;
+		}
+
+		for (int entry = buckets[bucket]; entry != NONE; entry = next[entry])
+		{
+			if (next[entry] == slot)
+			{
+				next[entry] = next[slot];
+				return;
+			}
+		}
+	}
+
+	private int slotOf(long identity)
+	{
+		for (int slot = 0; slot < MAX_MANTICORES; slot++)
+		{
+			if (active[slot] && identities[slot] == identity)
+			{
+				return slot;
+			}
+		}
+		return NONE;
+	}
+
+	private int freeSlot()
+	{
+		for (int slot = 0; slot < MAX_MANTICORES; slot++)
+		{
+			if (!active[slot])
+			{
+				return slot;
+			}
+		}
+		return NONE;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+import javax.inject.Singleton;
+
+/**
+ * Stable identities for NPCs, whose indices the game reuses as soon as they are free.
+ * <p>
+ * An identity packs an NPC's index into the low 32 bits of a long and the spawn generation of that index into the
+ * high 32 bits. Every spawn of an index bumps its generation, so state keyed by the identity of an NPC that has
+ * since despawned can never be mistaken for state of the next NPC to get its index: looking it up with the new
+ * NPC's {@link #current(int)} identity simply misses, without anything having to be cleared first. Only used from
+ * the client thread.
+ */
+@Singleton
+public class NpcIdentities
+{
+	private int[] generations = new int[128];
+
+	/**
+	 * Starts a new generation for an index that an NPC has just spawned on.
+	 *
+	 * @return the NPC's identity
+	 */
+	public long spawned(int npcIndex)
+	{
+		if (npcIndex >= generations.length)
+		{
+			generations = Arrays.copyOf(generations, Math.max(generations.length * 2, npcIndex + 1));
+		}
+		return pack(npcIndex, ++generations[npcIndex]);
+	}
+
+	/**
+	 * The identity of the NPC currently on an index. NPCs already around before their spawn was seen share
+	 * generation 0 until their index is reused.
+	 */
+	public long current(int npcIndex)
+	{
+		return pack(npcIndex, npcIndex < generations.length ? generations[npcIndex] : 0);
+	}
+
+	/**
+	 * Whether an identity still belongs to the NPC on its index, rather than one that has since despawned.
+	 */
+	public boolean isCurrent(long identity)
+	{
+		return current(index(identity)) == identity;
+	}
+
+	static long pack(int npcIndex, int generation)
+	{
+		return (long) generation << 32 | npcIndex & 0xFFFFFFFFL;
+	}
+
+	static int index(long identity)
+	{
+		return (int) identity;
+	}
+
+	static int generation(long identity)
+	{
+		return (int) (identity >>> 32);
+	}
+}
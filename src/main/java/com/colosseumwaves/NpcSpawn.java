@@ -35,5 +35,11 @@ public class NpcSpawn
 {
 	private final int npcId;
 	private final Point location;
-	private final int npcIndex;
+	// NpcIdentities identity, so a capture can never pick up state of an NPC that later got the same index
+	private final long identity;
+
+	public int getNpcIndex()
+	{
+		return NpcIdentities.index(identity);
+	}
 }
\ No newline at end of file
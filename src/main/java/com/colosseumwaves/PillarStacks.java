@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which wave NPCs are stacked out of sight behind the same pillar from the player's tile, tick by tick.
+ * <p>
+ * Updates are incremental: each tick the caller reports every NPC's tile, and only NPCs that moved, or every NPC
+ * when the player moved, have their line of sight recomputed. An NPC counts as hidden when the line from the player
+ * to the nearest tile of its footprint is blocked. Only used from the client thread.
+ */
+final class PillarStacks
+{
+	// Hidden NPCs behind one pillar needed to call it a stack
+	static final int MIN_STACK = 2;
+
+	private static final int MAX_NPCS = 32;
+	private static final int PILLARS = ArenaMap.PILLAR_X.length;
+	private static final int COUNT_BITS = 5;
+
+	// Tracked NPCs, packed into the first npcCount slots
+	// NpcIdentities identity of the NPC in each slot
+	private final long[] identities = new long[MAX_NPCS];
+	private final int[] npcX = new int[MAX_NPCS];
+	private final int[] npcY = new int[MAX_NPCS];
+	private final int[] npcSizes = new int[MAX_NPCS];
+	private final int[] npcPillars = new int[MAX_NPCS];
+	private final int[] npcTicks = new int[MAX_NPCS];
+	private int npcCount;
+
+	private final int[] hiddenCounts = new int[PILLARS];
+	private int playerX = -1;
+	private int playerY = -1;
+	private boolean playerMoved;
+	private int tick;
+	private int state;
+
+	/**
+	 * Starts a tick. Every NPC still in the arena must then be passed to {@link #update} before {@link #endTick}.
+	 */
+	void beginTick(int playerX, int playerY)
+	{
+		tick++;
+		playerMoved = playerX != this.playerX || playerY != this.playerY;
+		this.playerX = playerX;
+		this.playerY = playerY;
+	}
+
+	/**
+	 * @param identity the NPC's {@link NpcIdentities} identity
+	 */
+	void update(long identity, int x, int y, int losType)
+	{
+		int slot = slotOf(identity);
+		if (slot < 0)
+		{
+			if (npcCount == MAX_NPCS)
+			{
+				return;
+			}
+			slot = npcCount++;
+			identities[slot] = identity;
+			npcSizes[slot] = ArenaMap.npcSize(losType);
+			npcPillars[slot] = -1;
+			place(slot, x, y);
+		}
+		else if (npcX[slot] != x || npcY[slot] != y)
+		{
+			place(slot, x, y);
+		}
+		else if (playerMoved)
+		{
+			setPillar(slot, findPillar(slot));
+		}
+		npcTicks[slot] = tick;
+	}
+
+	/**
+	 * Drops NPCs that were not updated this tick and reports whether the stacks changed since the last tick.
+	 */
+	boolean endTick()
+	{
+		for (int slot = npcCount - 1; slot >= 0; slot--)
+		{
+			if (npcTicks[slot] != tick)
+			{
+				remove(slot);
+			}
+		}
+
+		int previous = state;
+		state = 0;
+		for (int pillar = 0; pillar < PILLARS; pillar++)
+		{
+			int hidden = hiddenCounts[pillar] >= MIN_STACK ? Math.min(hiddenCounts[pillar], (1 << COUNT_BITS) - 1) : 0;
+			state |= hidden << pillar * COUNT_BITS;
+		}
+		return state != previous;
+	}
+
+	/**
+	 * NPCs stacked behind a pillar, or 0 if fewer than {@link #MIN_STACK} are hidden behind it.
+	 */
+	int stackSize(int pillar)
+	{
+		return state >>> pillar * COUNT_BITS & (1 << COUNT_BITS) - 1;
+	}
+
+	boolean hasStacks()
+	{
+		return state != 0;
+	}
+
+	void clear()
+	{
+		Arrays.fill(hiddenCounts, 0);
+		npcCount = 0;
+		playerX = -1;
+		playerY = -1;
+		state = 0;
+	}
+
+	private int slotOf(long identity)
+	{
+		for (int slot = 0; slot < npcCount; slot++)
+		{
+			if (identities[slot] == identity)
+			{
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private void place(int slot, int x, int y)
+	{
+		npcX[slot] = x;
+		npcY[slot] = y;
+		setPillar(slot, findPillar(slot));
+	}
+
+	private void remove(int slot)
+	{
+		setPillar(slot, -1);
+
+		int last = --npcCount;
+		identities[slot] = identities[last];
+		npcX[slot] = npcX[last];
+		npcY[slot] = npcY[last];
+		npcSizes[slot] = npcSizes[last];
+		npcPillars[slot] = npcPillars[last];
+		npcTicks[slot] = npcTicks[last];
+	}
+
+	private void setPillar(int slot, int pillar)
+	{
+		if (npcPillars[slot] >= 0)
+		{
+			hiddenCounts[npcPillars[slot]]--;
+		}
+		npcPillars[slot] = pillar;
+		if (pillar >= 0)
+		{
+			hiddenCounts[pillar]++;
+		}
+	}
+
+	private int findPillar(int slot)
+	{
+		if (playerX < 0)
+		{
+			return -1;
+		}
+
+		int size = npcSizes[slot];
+		int targetX = Math.max(npcX[slot], Math.min(playerX, npcX[slot] + size - 1));
+		int targetY = Math.max(npcY[slot] - size + 1, Math.min(playerY, npcY[slot]));
+		return ArenaMap.blockingPillar(playerX, playerY, targetX, targetY);
+	}
+}
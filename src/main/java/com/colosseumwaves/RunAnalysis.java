@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregate statistics over an archive of runs.
+ * <p>
+ * The archive is split into chunks with fork/join. Each chunk is folded into its own {@code RunAnalysis}
+ * and partial results are merged pairwise as the tasks join, so no state is shared between workers.
+ */
+public final class RunAnalysis
+{
+	static final int MAX_WAVE = 12;
+	static final int MAX_REINFORCEMENT_TICK = 63;
+	static final int MAX_DURATION_TICKS = 1023;
+	private static final int TYPE_COUNT = 7;
+	private static final int SPLIT_THRESHOLD = 512;
+
+	// Keyed by wave << 24 | a 4-bit count for each LoS type 1-6
+	private final Map<Integer, Integer> compositions = new HashMap<>();
+	private final int[][] reinforcementTicks = new int[MAX_WAVE + 1][MAX_REINFORCEMENT_TICK + 1];
+	// Orb orders seen at wave spawns, indexed by [mantimayhem 3 ? 1 : 0][SpawnCode.orbs]
+	private final int[][] orbOrders = new int[2][64];
+	private final int[][] durations = new int[MAX_WAVE + 1][MAX_DURATION_TICKS + 1];
+	// Sum and count of the 1-based position each wave spawn NPC was killed in, indexed by [wave][LoS type]
+	private final int[][] killPositionSums = new int[MAX_WAVE + 1][TYPE_COUNT];
+	private final int[][] killCounts = new int[MAX_WAVE + 1][TYPE_COUNT];
+	private int runCount;
+	private int waveCount;
+
+	public static RunAnalysis analyze(List<RunRecord> runs)
+	{
+		return analyze(runs, Runtime.getRuntime().availableProcessors());
+	}
+
+	public static RunAnalysis analyze(List<RunRecord> runs, int parallelism)
+	{
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			return pool.invoke(new AnalysisTask(runs, 0, runs.size()));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	public int getRunCount()
+	{
+		return runCount;
+	}
+
+	public int getWaveCount()
+	{
+		return waveCount;
+	}
+
+	/**
+	 * Number of times each spawn composition was seen on a wave, keyed by {@link #compositionKey(int, int[])}.
+	 */
+	public Map<Integer, Integer> getCompositions(int wave)
+	{
+		Map<Integer, Integer> result = new HashMap<>();
+		for (Map.Entry<Integer, Integer> entry : compositions.entrySet())
+		{
+			if (entry.getKey() >>> 24 == wave)
+			{
+				result.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Histogram of ticks between the wave starting and reinforcements spawning.
+	 */
+	public int[] getReinforcementTicks(int wave)
+	{
+		return reinforcementTicks[wave].clone();
+	}
+
+	/**
+	 * Histogram of ticks between the wave starting and it being completed, for waves that recorded it.
+	 */
+	public int[] getDurations(int wave)
+	{
+		return durations[wave].clone();
+	}
+
+	/**
+	 * The average position, 1 being first, that NPCs of a LoS type spawning on a wave were killed in, or
+	 * {@link Double#NaN} if no kill order was recorded for them.
+	 */
+	public double getMeanKillPosition(int wave, int type)
+	{
+		int count = killCounts[wave][type];
+		return count == 0 ? Double.NaN : (double) killPositionSums[wave][type] / count;
+	}
+
+	/**
+	 * Number of manticores seen with each orb order, indexed by {@link SpawnCode#orbs(int)}.
+	 */
+	public int[] getOrbOrders(boolean mantimayhem3)
+	{
+		return orbOrders[mantimayhem3 ? 1 : 0].clone();
+	}
+
+	/**
+	 * A short human readable report: the most common composition, median reinforcement tick, median clear time and
+	 * usual kill order of each wave, and the most common manticore orb orders.
+	 */
+	public String describe()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(runCount).append(" runs, ").append(waveCount).append(" waves\n");
+		for (int wave = 1; wave <= MAX_WAVE; wave++)
+		{
+			Map<Integer, Integer> waveCompositions = getCompositions(wave);
+			if (waveCompositions.isEmpty())
+			{
+				continue;
+			}
+
+			Map.Entry<Integer, Integer> top = null;
+			int total = 0;
+			for (Map.Entry<Integer, Integer> entry : waveCompositions.entrySet())
+			{
+				total += entry.getValue();
+				if (top == null || entry.getValue() > top.getValue())
+				{
+					top = entry;
+				}
+			}
+
+			sb.append("\nWave ").append(wave).append(": ").append(describeComposition(top.getKey()))
+				.append(" (").append(top.getValue()).append('/').append(total).append(')');
+
+			int medianTick = median(reinforcementTicks[wave]);
+			if (medianTick >= 0)
+			{
+				sb.append("\n  Reinforcements at tick ").append(medianTick);
+			}
+
+			int medianDuration = median(durations[wave]);
+			if (medianDuration >= 0)
+			{
+				sb.append("\n  Cleared in ").append(medianDuration).append(" ticks");
+			}
+
+			appendKillOrder(sb, wave);
+		}
+
+		for (int mm3 = 0; mm3 < 2; mm3++)
+		{
+			int top = 0;
+			for (int orbs = 1; orbs < orbOrders[mm3].length; orbs++)
+			{
+				if (orbOrders[mm3][orbs] > orbOrders[mm3][top])
+				{
+					top = orbs;
+				}
+			}
+
+			if (orbOrders[mm3][top] > 0)
+			{
+				StringBuilder order = new StringBuilder();
+				SpawnCode.appendManticoreSuffix(order, top);
+				sb.append("\n").append(mm3 == 1 ? "MM3" : "Non-MM3").append(" orb order: ").append(order)
+					.append(" (").append(orbOrders[mm3][top]).append(')');
+			}
+		}
+		return sb.toString();
+	}
+
+	private void appendKillOrder(StringBuilder sb, int wave)
+	{
+		// Types ordered by mean kill position, a handful at most so a selection pass per type is plenty
+		boolean[] listed = new boolean[TYPE_COUNT];
+		String separator = "\n  Kill order: ";
+		while (true)
+		{
+			int next = -1;
+			for (int type = 1; type < TYPE_COUNT; type++)
+			{
+				if (!listed[type] && killCounts[wave][type] > 0
+					&& (next < 0 || getMeanKillPosition(wave, type) < getMeanKillPosition(wave, next)))
+				{
+					next = type;
+				}
+			}
+			if (next < 0)
+			{
+				return;
+			}
+
+			listed[next] = true;
+			sb.append(separator).append(SpawnCode.typeName(next))
+				.append(String.format(" (%.1f)", getMeanKillPosition(wave, next)));
+			separator = ", ";
+		}
+	}
+
+	private static int median(int[] histogram)
+	{
+		int total = 0;
+		for (int count : histogram)
+		{
+			total += count;
+		}
+		if (total == 0)
+		{
+			return -1;
+		}
+
+		int seen = 0;
+		for (int tick = 0; tick < histogram.length; tick++)
+		{
+			seen += histogram[tick];
+			if (seen * 2 >= total)
+			{
+				return tick;
+			}
+		}
+		return histogram.length - 1;
+	}
+
+	static int compositionKey(int wave, int[] codes)
+	{
+		int key = wave << 24;
+		for (int code : codes)
+		{
+			int type = SpawnCode.type(code);
+			if (type == 0 || type >= TYPE_COUNT)
+			{
+				continue;
+			}
+
+			int shift = (type - 1) * 4;
+			if ((key >>> shift & 0xF) < 0xF)
+			{
+				key += 1 << shift;
+			}
+		}
+		return key;
+	}
+
+	static String describeComposition(int key)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int type = 1; type < TYPE_COUNT; type++)
+		{
+			int count = key >>> ((type - 1) * 4) & 0xF;
+			if (count == 0)
+			{
+				continue;
+			}
+			if (sb.length() > 0)
+			{
+				sb.append(", ");
+			}
+			sb.append(count).append("x ").append(SpawnCode.typeName(type));
+		}
+		return sb.toString();
+	}
+
+	private void add(RunRecord run)
+	{
+		runCount++;
+		for (WaveRecord wave : run.getWaves())
+		{
+			int waveNumber = wave.getWave();
+			if (waveNumber <= 0 || waveNumber > MAX_WAVE)
+			{
+				continue;
+			}
+
+			waveCount++;
+			compositions.merge(compositionKey(waveNumber, wave.getSpawns()), 1, Integer::sum);
+
+			if (wave.getReinforcementTick() >= 0)
+			{
+				reinforcementTicks[waveNumber][Math.min(wave.getReinforcementTick(), MAX_REINFORCEMENT_TICK)]++;
+			}
+
+			if (wave.getDurationTicks() > 0)
+			{
+				durations[waveNumber][Math.min(wave.getDurationTicks(), MAX_DURATION_TICKS)]++;
+			}
+			addKillOrder(waveNumber, wave);
+
+			int[] orbs = orbOrders[wave.isMantimayhem3() ? 1 : 0];
+			for (int code : wave.getSpawns())
+			{
+				if (SpawnCode.orbs(code) != SpawnCode.ORB_NONE)
+				{
+					orbs[SpawnCode.orbs(code)]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the position each of the wave's spawns was killed in. NPCs killed on the same tick share a position, and
+	 * in a completed wave an NPC without a despawn tick was killed last, its despawn having come after the wave's
+	 * completion message.
+	 */
+	private void addKillOrder(int waveNumber, WaveRecord wave)
+	{
+		int[] spawns = wave.getSpawns();
+		boolean completed = wave.getDurationTicks() > 0;
+		for (int i = 0; i < spawns.length; i++)
+		{
+			int type = SpawnCode.type(spawns[i]);
+			int tick = wave.getDespawnTick(i);
+			if (type == 0 || type >= TYPE_COUNT || (tick < 0 && !completed))
+			{
+				continue;
+			}
+
+			int position = 1;
+			for (int j = 0; j < spawns.length; j++)
+			{
+				int other = wave.getDespawnTick(j);
+				if (other >= 0 && (tick < 0 || other < tick))
+				{
+					position++;
+				}
+			}
+			killPositionSums[waveNumber][type] += position;
+			killCounts[waveNumber][type]++;
+		}
+	}
+
+	private RunAnalysis merge(RunAnalysis other)
+	{
+		runCount += other.runCount;
+		waveCount += other.waveCount;
+		other.compositions.forEach((key, count) -> compositions.merge(key, count, Integer::sum));
+		addAll(reinforcementTicks, other.reinforcementTicks);
+		addAll(orbOrders, other.orbOrders);
+		addAll(durations, other.durations);
+		addAll(killPositionSums, other.killPositionSums);
+		addAll(killCounts, other.killCounts);
+		return this;
+	}
+
+	private static void addAll(int[][] into, int[][] from)
+	{
+		for (int i = 0; i < into.length; i++)
+		{
+			for (int j = 0; j < into[i].length; j++)
+			{
+				into[i][j] += from[i][j];
+			}
+		}
+	}
+
+	private static final class AnalysisTask extends RecursiveTask<RunAnalysis>
+	{
+		private final List<RunRecord> runs;
+		private final int from;
+		private final int to;
+
+		AnalysisTask(List<RunRecord> runs, int from, int to)
+		{
+			this.runs = runs;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected RunAnalysis compute()
+		{
+			if (to - from <= SPLIT_THRESHOLD)
+			{
+				RunAnalysis analysis = new RunAnalysis();
+				for (int i = from; i < to; i++)
+				{
+					analysis.add(runs.get(i));
+				}
+				return analysis;
+			}
+
+			int mid = (from + to) >>> 1;
+			AnalysisTask left = new AnalysisTask(runs, from, mid);
+			left.fork();
+			RunAnalysis right = new AnalysisTask(runs, mid, to).compute();
+			return left.join().merge(right);
+		}
+	}
+}
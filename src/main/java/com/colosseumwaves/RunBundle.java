@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serializes a whole run into one compact string, for sharing a run as a single paste instead of a link per wave.
+ * <p>
+ * The run is bit-packed and written straight out as base64url, six bits per character, so encoding and decoding
+ * stream through the string without an intermediate byte array. Per wave the bundle holds the wave number, the
+ * Mantimayhem 3 flag and modifier levels, and the spawn and reinforcement codes with their player tiles, which is
+ * everything needed to rebuild the wave's LoS links. An instance reuses its state between calls and is not thread safe.
+ */
+final class RunBundle
+{
+	private static final int VERSION = 2;
+	private static final int VERSION_BITS = 4;
+	private static final int WAVE_COUNT_BITS = 5;
+	private static final int WAVE_BITS = 4;
+	private static final int SPAWN_COUNT_BITS = 5;
+	private static final int COORD_BITS = 6;
+	private static final int TYPE_BITS = 3;
+	private static final int MANTICORE_STATE_BITS = 7;
+	private static final int REINFORCEMENT_TICK_BITS = 7;
+
+	private static final int MAX_COORD = (1 << COORD_BITS) - 1;
+	private static final int MAX_COUNT = (1 << SPAWN_COUNT_BITS) - 1;
+	private static final int MAX_REINFORCEMENT_TICK = (1 << REINFORCEMENT_TICK_BITS) - 2;
+
+	private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+	private static final byte[] DECODE = new byte[128];
+
+	static
+	{
+		Arrays.fill(DECODE, (byte) -1);
+		for (int i = 0; i < ALPHABET.length; i++)
+		{
+			DECODE[ALPHABET[i]] = (byte) i;
+		}
+	}
+
+	// Writer state
+	private StringBuilder out;
+	private int pendingBits;
+	private int pendingCount;
+
+	// Reader state
+	private CharSequence in;
+	private int position;
+	private int end;
+	private int bufferedBits;
+	private int bufferedCount;
+
+	String encode(RunRecord run)
+	{
+		StringBuilder sb = new StringBuilder(64);
+		encode(run, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Appends the bundle for a run.
+	 *
+	 * @throws IllegalArgumentException if the run does not fit the format, such as a tile outside the arena
+	 */
+	void encode(RunRecord run, StringBuilder sb)
+	{
+		out = sb;
+		pendingBits = 0;
+		pendingCount = 0;
+
+		List<WaveRecord> waves = run.getWaves();
+		write(VERSION, VERSION_BITS);
+		write(checkedCount(waves.size()), WAVE_COUNT_BITS);
+		for (WaveRecord wave : waves)
+		{
+			if (wave.getWave() < 0 || wave.getWave() >= 1 << WAVE_BITS)
+			{
+				throw new IllegalArgumentException("wave " + wave.getWave());
+			}
+
+			write(wave.getWave(), WAVE_BITS);
+			write(wave.isMantimayhem3() ? 1 : 0, 1);
+			if (wave.getModifiers() == 0)
+			{
+				write(0, 1);
+			}
+			else
+			{
+				write(1, 1);
+				write(wave.getModifiers() >>> 16, 16);
+				write(wave.getModifiers() & 0xFFFF, 16);
+			}
+			writeCodes(wave.getSpawns(), wave.getPlayerAtSpawn());
+			writeCodes(wave.getReinforcements(), wave.getPlayerAtReinforcements());
+			if (wave.hasReinforcements())
+			{
+				int tick = wave.getReinforcementTick();
+				write(tick < 0 ? MAX_REINFORCEMENT_TICK + 1 : Math.min(tick, MAX_REINFORCEMENT_TICK), REINFORCEMENT_TICK_BITS);
+			}
+		}
+
+		if (pendingCount > 0)
+		{
+			out.append(ALPHABET[pendingBits << (6 - pendingCount) & 0x3F]);
+		}
+		out = null;
+	}
+
+	/**
+	 * Decodes a bundle written by {@link #encode(RunRecord, StringBuilder)}.
+	 *
+	 * @throws IllegalArgumentException if the text is not a valid bundle
+	 */
+	RunRecord decode(CharSequence text, int start, int end)
+	{
+		in = text;
+		position = start;
+		this.end = end;
+		bufferedBits = 0;
+		bufferedCount = 0;
+
+		try
+		{
+			if (read(VERSION_BITS) != VERSION)
+			{
+				throw new IllegalArgumentException("unsupported bundle version");
+			}
+
+			int waveCount = read(WAVE_COUNT_BITS);
+			List<WaveRecord> waves = new ArrayList<>(waveCount);
+			for (int i = 0; i < waveCount; i++)
+			{
+				int wave = read(WAVE_BITS);
+				boolean mantimayhem3 = read(1) == 1;
+				int modifiers = 0;
+				if (read(1) == 1)
+				{
+					modifiers = read(16) << 16 | read(16);
+				}
+				int[] spawns = readCodes();
+				int playerAtSpawn = readPlayer();
+				int[] reinforcements = readCodes();
+				int playerAtReinforcements = readPlayer();
+				int reinforcementTick = -1;
+				if (reinforcements.length > 0)
+				{
+					reinforcementTick = read(REINFORCEMENT_TICK_BITS);
+					if (reinforcementTick > MAX_REINFORCEMENT_TICK)
+					{
+						reinforcementTick = -1;
+					}
+				}
+				// Bundles only carry what the links need, so wave and despawn timings are not restored
+				waves.add(new WaveRecord(wave, spawns, reinforcements, playerAtSpawn, playerAtReinforcements,
+					reinforcementTick, mantimayhem3, modifiers, 0, null));
+			}
+			return new RunRecord(0, waves, false);
+		}
+		finally
+		{
+			in = null;
+		}
+	}
+
+	private void writeCodes(int[] codes, int player)
+	{
+		write(checkedCount(codes.length), SPAWN_COUNT_BITS);
+		for (int code : codes)
+		{
+			write(checkedCoord(SpawnCode.x(code)), COORD_BITS);
+			write(checkedCoord(SpawnCode.y(code)), COORD_BITS);
+			write(SpawnCode.type(code), TYPE_BITS);
+			if (SpawnCode.type(code) == SpawnCode.MANTICORE)
+			{
+				write(SpawnCode.manticoreState(code), MANTICORE_STATE_BITS);
+			}
+		}
+
+		if (player == LosUrls.NO_PLAYER)
+		{
+			write(0, 1);
+		}
+		else
+		{
+			write(1, 1);
+			write(checkedCoord(player % 256), COORD_BITS);
+			write(checkedCoord(player / 256), COORD_BITS);
+		}
+	}
+
+	private int[] readCodes()
+	{
+		int[] codes = new int[read(SPAWN_COUNT_BITS)];
+		for (int i = 0; i < codes.length; i++)
+		{
+			int x = read(COORD_BITS);
+			int y = read(COORD_BITS);
+			int type = read(TYPE_BITS);
+			int state = type == SpawnCode.MANTICORE ? read(MANTICORE_STATE_BITS) : SpawnCode.NONE;
+			codes[i] = SpawnCode.pack(x, y, type, state);
+		}
+		return codes;
+	}
+
+	private int readPlayer()
+	{
+		if (read(1) == 0)
+		{
+			return LosUrls.NO_PLAYER;
+		}
+		int x = read(COORD_BITS);
+		int y = read(COORD_BITS);
+		return LosUrls.encodePlayer(x, y);
+	}
+
+	private void write(int value, int bits)
+	{
+		for (int bit = bits - 1; bit >= 0; bit--)
+		{
+			pendingBits = pendingBits << 1 | (value >>> bit & 1);
+			if (++pendingCount == 6)
+			{
+				out.append(ALPHABET[pendingBits]);
+				pendingBits = 0;
+				pendingCount = 0;
+			}
+		}
+	}
+
+	private int read(int bits)
+	{
+		int value = 0;
+		for (int i = 0; i < bits; i++)
+		{
+			if (bufferedCount == 0)
+			{
+				if (position >= end)
+				{
+					throw new IllegalArgumentException("bundle is truncated");
+				}
+
+				char c = in.charAt(position++);
+				int sextet = c < DECODE.length ? DECODE[c] : -1;
+				if (sextet < 0)
+				{
+					throw new IllegalArgumentException("invalid bundle character " + c);
+				}
+				bufferedBits = sextet;
+				bufferedCount = 6;
+			}
+			value = value << 1 | (bufferedBits >>> --bufferedCount & 1);
+		}
+		return value;
+	}
+
+	private static int checkedCount(int count)
+	{
+		if (count > MAX_COUNT)
+		{
+			throw new IllegalArgumentException("too many entries: " + count);
+		}
+		return count;
+	}
+
+	private static int checkedCoord(int coord)
+	{
+		if (coord < 0 || coord > MAX_COORD)
+		{
+			throw new IllegalArgumentException("tile outside the arena: " + coord);
+		}
+		return coord;
+	}
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Compares runs wave by wave on their sorted spawn keys.
+ * <p>
+ * Waves are matched by wave number. Within a wave, spawns on the same tile with the same type match; what is left
+ * over is paired up by type as spawns that moved, and anything unpaired appeared in or vanished from the other run.
+ */
+final class RunDiff
+{
+	private RunDiff()
+	{
+	}
+
+	/**
+	 * How one wave's spawns or reinforcements differ between two runs. Codes are {@link SpawnCode}s.
+	 */
+	@Value
+	static class WaveDiff
+	{
+		int wave;
+		boolean reinforcements;
+		int[] movedFrom;
+		int[] movedTo;
+		int[] appeared;
+		int[] vanished;
+		// Links for the wave in each run, null where the run has nothing to show
+		String url;
+		String otherUrl;
+
+		boolean isEmpty()
+		{
+			return movedFrom.length == 0 && appeared.length == 0 && vanished.length == 0;
+		}
+
+		String describe()
+		{
+			StringBuilder sb = new StringBuilder();
+			sb.append("Wave ").append(wave).append(reinforcements ? " reinforcements: " : ": ");
+			if (isEmpty())
+			{
+				return sb.append("same").toString();
+			}
+
+			appendCount(sb, movedFrom.length, "moved");
+			appendCount(sb, appeared.length, "appeared");
+			appendCount(sb, vanished.length, "vanished");
+			return sb.toString();
+		}
+
+		private static void appendCount(StringBuilder sb, int count, String what)
+		{
+			if (count > 0)
+			{
+				if (sb.charAt(sb.length() - 1) != ' ')
+				{
+					sb.append(", ");
+				}
+				sb.append(count).append(' ').append(what);
+			}
+		}
+	}
+
+	@Value
+	static class Match
+	{
+		RunRecord run;
+		// Spawns and reinforcements that are not on the same tile in both runs
+		int distance;
+	}
+
+	/**
+	 * Diffs every wave either run has, spawns first and then reinforcements, in wave order.
+	 */
+	static List<WaveDiff> diff(RunRecord run, RunRecord other)
+	{
+		WaveRecord[] waves = byWave(run);
+		WaveRecord[] otherWaves = byWave(other);
+		List<WaveDiff> diffs = new ArrayList<>();
+		for (int wave = 0; wave < waves.length; wave++)
+		{
+			WaveRecord a = waves[wave];
+			WaveRecord b = otherWaves[wave];
+			if (a == null && b == null)
+			{
+				continue;
+			}
+
+			diffs.add(diffCodes(wave, false, a == null ? null : a.getSpawns(), b == null ? null : b.getSpawns(),
+				a == null ? null : a.getSpawnUrl(), b == null ? null : b.getSpawnUrl()));
+			boolean hasReinforcements = a != null && a.hasReinforcements() || b != null && b.hasReinforcements();
+			if (hasReinforcements)
+			{
+				diffs.add(diffCodes(wave, true, a == null ? null : a.getReinforcements(), b == null ? null : b.getReinforcements(),
+					a != null && a.hasReinforcements() ? a.getReinforcementUrl() : null,
+					b != null && b.hasReinforcements() ? b.getReinforcementUrl() : null));
+			}
+		}
+		return diffs;
+	}
+
+	private static WaveDiff diffCodes(int wave, boolean reinforcements, int[] codes, int[] otherCodes, String url, String otherUrl)
+	{
+		int[] a = sortedByKey(codes);
+		int[] b = sortedByKey(otherCodes);
+		int[] onlyA = new int[a.length];
+		int[] onlyB = new int[b.length];
+		int countA = 0;
+		int countB = 0;
+
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length)
+		{
+			int keyA = i < a.length ? SpawnCode.key(a[i]) : Integer.MAX_VALUE;
+			int keyB = j < b.length ? SpawnCode.key(b[j]) : Integer.MAX_VALUE;
+			if (keyA == keyB)
+			{
+				i++;
+				j++;
+			}
+			else if (keyA < keyB)
+			{
+				onlyA[countA++] = a[i++];
+			}
+			else
+			{
+				onlyB[countB++] = b[j++];
+			}
+		}
+
+		// Pair leftovers of the same type, nearest first, as moved spawns
+		int[] movedFrom = new int[Math.min(countA, countB)];
+		int[] movedTo = new int[movedFrom.length];
+		int moved = 0;
+		for (int x = 0; x < countA; x++)
+		{
+			int best = -1;
+			int bestDistance = Integer.MAX_VALUE;
+			for (int y = 0; y < countB; y++)
+			{
+				if (onlyB[y] != -1 && SpawnCode.type(onlyB[y]) == SpawnCode.type(onlyA[x]))
+				{
+					int distance = Math.max(Math.abs(SpawnCode.x(onlyB[y]) - SpawnCode.x(onlyA[x])),
+						Math.abs(SpawnCode.y(onlyB[y]) - SpawnCode.y(onlyA[x])));
+					if (distance < bestDistance)
+					{
+						best = y;
+						bestDistance = distance;
+					}
+				}
+			}
+
+			if (best >= 0)
+			{
+				movedFrom[moved] = onlyA[x];
+				movedTo[moved] = onlyB[best];
+				moved++;
+				onlyA[x] = -1;
+				onlyB[best] = -1;
+			}
+		}
+
+		return new WaveDiff(wave, reinforcements, Arrays.copyOf(movedFrom, moved), Arrays.copyOf(movedTo, moved),
+			remaining(onlyB, countB), remaining(onlyA, countA), url, otherUrl);
+	}
+
+	private static int[] remaining(int[] codes, int count)
+	{
+		int[] result = new int[count];
+		int size = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (codes[i] != -1)
+			{
+				result[size++] = codes[i];
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	private static int[] sortedByKey(int[] codes)
+	{
+		if (codes == null)
+		{
+			return new int[0];
+		}
+		int[] sorted = codes.clone();
+		// Codes order by key first, so sorting the codes sorts the keys
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	private static WaveRecord[] byWave(RunRecord run)
+	{
+		WaveRecord[] waves = new WaveRecord[RunAnalysis.MAX_WAVE + 1];
+		for (WaveRecord wave : run.getWaves())
+		{
+			if (wave.getWave() >= 0 && wave.getWave() < waves.length)
+			{
+				waves[wave.getWave()] = wave;
+			}
+		}
+		return waves;
+	}
+
+	/**
+	 * Keeps the runs closest to a reference run out of a stream of runs. Each run is compared with a merge over the
+	 * reference's pre-sorted keys and reused buffers, so a whole archive can be ranked while the player waits.
+	 */
+	static final class Ranker
+	{
+		private static final int MAX_CODES = 64;
+		private static final int[] NO_KEYS = new int[0];
+
+		// Reference keys by wave, spawns at [wave * 2] and reinforcements at [wave * 2 + 1]
+		private final int[][] referenceKeys = new int[(RunAnalysis.MAX_WAVE + 1) * 2][];
+		private final long referenceStartTime;
+		private final boolean referenceImported;
+		private final int limit;
+		private final Match[] best;
+		private int size;
+
+		private final int[] scratch = new int[MAX_CODES];
+		private final boolean[] seen = new boolean[(RunAnalysis.MAX_WAVE + 1) * 2];
+
+		Ranker(RunRecord reference, int limit)
+		{
+			for (WaveRecord wave : reference.getWaves())
+			{
+				if (wave.getWave() >= 0 && wave.getWave() <= RunAnalysis.MAX_WAVE)
+				{
+					referenceKeys[wave.getWave() * 2] = SpawnCode.sortedKeys(wave.getSpawns());
+					referenceKeys[wave.getWave() * 2 + 1] = SpawnCode.sortedKeys(wave.getReinforcements());
+				}
+			}
+			referenceStartTime = reference.getStartTime();
+			referenceImported = reference.isImported();
+			this.limit = limit;
+			best = new Match[limit];
+		}
+
+		void accept(RunRecord run)
+		{
+			// The reference run itself, read back from the store
+			if (referenceStartTime != 0 && run.getStartTime() == referenceStartTime && run.isImported() == referenceImported)
+			{
+				return;
+			}
+
+			int worst = size < limit ? Integer.MAX_VALUE : best[size - 1].getDistance();
+			int distance = distance(run, worst);
+			if (distance >= worst)
+			{
+				return;
+			}
+
+			int position = size < limit ? size++ : size - 1;
+			while (position > 0 && best[position - 1].getDistance() > distance)
+			{
+				best[position] = best[position - 1];
+				position--;
+			}
+			best[position] = new Match(run, distance);
+		}
+
+		/**
+		 * The closest runs seen so far, closest first.
+		 */
+		List<Match> results()
+		{
+			return new ArrayList<>(Arrays.asList(best).subList(0, size));
+		}
+
+		private int distance(RunRecord run, int limit)
+		{
+			Arrays.fill(seen, false);
+			int distance = 0;
+			for (WaveRecord wave : run.getWaves())
+			{
+				int index = wave.getWave() * 2;
+				if (index < 0 || index >= referenceKeys.length || seen[index])
+				{
+					continue;
+				}
+				seen[index] = true;
+				seen[index + 1] = true;
+				distance += mismatches(referenceKeys[index], wave.getSpawns())
+					+ mismatches(referenceKeys[index + 1], wave.getReinforcements());
+				if (distance >= limit)
+				{
+					return distance;
+				}
+			}
+
+			// Waves only the reference has
+			for (int index = 0; index < referenceKeys.length; index++)
+			{
+				if (!seen[index] && referenceKeys[index] != null)
+				{
+					distance += referenceKeys[index].length;
+				}
+			}
+			return distance;
+		}
+
+		/**
+		 * Size of the symmetric difference between the reference keys and the keys of {@code codes}.
+		 */
+		private int mismatches(int[] keys, int[] codes)
+		{
+			if (keys == null)
+			{
+				keys = NO_KEYS;
+			}
+
+			int count = Math.min(codes.length, MAX_CODES);
+			for (int i = 0; i < count; i++)
+			{
+				// Insertion sort, the lists are a handful of spawns
+				int key = SpawnCode.key(codes[i]);
+				int j = i - 1;
+				while (j >= 0 && scratch[j] > key)
+				{
+					scratch[j + 1] = scratch[j];
+					j--;
+				}
+				scratch[j + 1] = key;
+			}
+
+			int matched = 0;
+			int i = 0;
+			int j = 0;
+			while (i < keys.length && j < count)
+			{
+				if (keys[i] == scratch[j])
+				{
+					matched++;
+					i++;
+					j++;
+				}
+				else if (keys[i] < scratch[j])
+				{
+					i++;
+				}
+				else
+				{
+					j++;
+				}
+			}
+			return keys.length + count - 2 * matched;
+		}
+	}
+}
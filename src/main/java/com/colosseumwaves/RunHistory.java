@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.Setter;
+
+/**
+ * Previous runs, oldest first.
+ * <p>
+ * Only the most recently used runs are kept in memory, up to {@link ColosseumWavesConfig#hotRunLimit()}, which the
+ * plugin passes on through {@link #setHotRunLimit(int)} when it changes.
+ * Every run is saved in the {@link RunStore}, so evicting a run only drops it from the heap, and it is
+ * read back from its offset in the run file the next time it is browsed.
+ * <p>
+ * The run file is shared with other clients on the machine. Instead of indexing the file again, the history
+ * tails it from where it last stopped, which picks up runs saved by any client.
+ */
+@Singleton
+public class RunHistory
+{
+	private final RunStore runStore;
+
+	private long[] offsets = new long[0];
+	private int size;
+
+	private final Object tailLock = new Object();
+	private long tailOffset;
+	private boolean loaded;
+	@Setter
+	@Nullable
+	private Consumer<RunRecord> otherRunListener;
+	// Guarded by this, like hotRuns
+	private int hotRunLimit;
+
+	private final Map<Long, RunRecord> hotRuns = new LinkedHashMap<Long, RunRecord>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, RunRecord> eldest)
+		{
+			return size() > hotRunLimit;
+		}
+	};
+
+	@Inject
+	RunHistory(RunStore runStore, ColosseumWavesConfig config)
+	{
+		this.runStore = runStore;
+		this.hotRunLimit = config.hotRunLimit();
+	}
+
+	/**
+	 * Changes how many runs are kept in memory, dropping the least recently used ones at once if there are now too
+	 * many.
+	 */
+	public synchronized void setHotRunLimit(int limit)
+	{
+		hotRunLimit = limit;
+		Iterator<RunRecord> eldest = hotRuns.values().iterator();
+		while (hotRuns.size() > limit && eldest.hasNext())
+		{
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Indexes the runs already in the store. Run this off the client thread.
+	 */
+	public void load()
+	{
+		synchronized (tailLock)
+		{
+			if (!loaded)
+			{
+				tailOffset = runStore.tail(tailOffset, this::addOffset, null);
+				loaded = true;
+			}
+		}
+	}
+
+	/**
+	 * Saves a finished run and keeps it in memory. Run this off the client thread.
+	 */
+	public void add(RunRecord run)
+	{
+		long offset = runStore.append(run);
+		if (offset < 0)
+		{
+			return;
+		}
+
+		synchronized (this)
+		{
+			hotRuns.put(offset, run);
+		}
+		tail();
+	}
+
+	/**
+	 * Saves several runs, such as imported links, without keeping them in memory. Run this off the client thread.
+	 */
+	public void addAll(List<RunRecord> runs)
+	{
+		if (runStore.appendAll(runs))
+		{
+			tail();
+		}
+	}
+
+	/**
+	 * Picks up runs appended to the store since the last call, whether by this client or another one. Runs saved by
+	 * other clients are passed to the {@link #setOtherRunListener other run listener}. Run this off the client thread.
+	 *
+	 * @return the number of runs found
+	 */
+	public int tail()
+	{
+		synchronized (tailLock)
+		{
+			if (!loaded)
+			{
+				return 0;
+			}
+
+			int before = size();
+			Consumer<RunRecord> listener = otherRunListener;
+			tailOffset = runStore.tail(tailOffset, this::addOffset, listener);
+			return size() - before;
+		}
+	}
+
+	/**
+	 * @return whether the run at the offset was saved by another client
+	 */
+	private synchronized boolean addOffset(long offset)
+	{
+		if (size == offsets.length)
+		{
+			offsets = Arrays.copyOf(offsets, Math.max(16, size * 2));
+		}
+		offsets[size++] = offset;
+		return !hotRuns.containsKey(offset);
+	}
+
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	/**
+	 * The run at {@code index}, read back from disk if it is no longer in memory. Run this off the client thread.
+	 */
+	@Nullable
+	public RunRecord get(int index)
+	{
+		long offset;
+		synchronized (this)
+		{
+			if (index < 0 || index >= size)
+			{
+				return null;
+			}
+
+			offset = offsets[index];
+			RunRecord run = hotRuns.get(offset);
+			if (run != null)
+			{
+				return run;
+			}
+		}
+
+		RunRecord run = runStore.readAt(offset);
+		if (run != null)
+		{
+			synchronized (this)
+			{
+				hotRuns.put(offset, run);
+			}
+		}
+		return run;
+	}
+}
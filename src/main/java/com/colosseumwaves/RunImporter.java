@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Imports Colosseum LoS links from a text file, such as a chat log or a spreadsheet export, into the run history.
+ * <p>
+ * The file is streamed line by line and links are decoded in place, so only one batch of runs is held in memory.
+ * The wave a link was taken on is not part of the link. Rows of a {@link LinkExporter} CSV carry the run's start
+ * time and wave; in other text the wave is the last "Wave N" before the link, as in the game's chat messages.
+ * Consecutive links of increasing waves are grouped into one run, and a run ends when a link cannot extend it.
+ * Links ending in {@code _ws} are stored as wave spawns, any other link as reinforcements. A link with no wave
+ * number is stored on its own as wave 0.
+ * <p>
+ * Imported runs are marked {@link RunRecord#isImported() imported}. Runs from an export keep their start time;
+ * other runs are numbered from the import time so each has a distinct one.
+ */
+@Singleton
+public class RunImporter
+{
+	private static final String LINK_MARKER = "los.colosim.com/?";
+	private static final String WAVE_MARKER = "wave";
+	private static final int BATCH_SIZE = 4096;
+	private static final int[] NO_CODES = new int[0];
+
+	private final RunHistory runHistory;
+
+	@Inject
+	RunImporter(RunHistory runHistory)
+	{
+		this.runHistory = runHistory;
+	}
+
+	/**
+	 * @return the number of links imported
+	 */
+	public int importLinks(Path file) throws IOException
+	{
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+		{
+			return importLinks(reader, System.currentTimeMillis(), runHistory::addAll);
+		}
+	}
+
+	/**
+	 * Reads the links in {@code reader}, passing the runs to {@code sink} in batches.
+	 *
+	 * @return the number of links imported
+	 */
+	static int importLinks(BufferedReader reader, long importTime, Consumer<List<RunRecord>> sink) throws IOException
+	{
+		Import pending = new Import(importTime, sink);
+		String line;
+		while ((line = reader.readLine()) != null)
+		{
+			pending.line(line);
+		}
+		pending.finish();
+		return pending.links;
+	}
+
+	private static final class Import
+	{
+		private final LosUrlDecoder decoder = new LosUrlDecoder();
+		private final List<RunRecord> batch = new ArrayList<>(BATCH_SIZE);
+		private final Consumer<List<RunRecord>> sink;
+		private long nextStartTime;
+		private int links;
+
+		// Wave of the last "Wave N" seen in text, 0 if none yet
+		private int textWave;
+
+		// The run being grouped, null if there is none
+		private List<WaveRecord> waves;
+		private long startTime;
+
+		Import(long importTime, Consumer<List<RunRecord>> sink)
+		{
+			this.nextStartTime = importTime;
+			this.sink = sink;
+		}
+
+		void line(String line)
+		{
+			// An export row starts with the run's start time and wave: "startTime,wave,capture,link"
+			long rowStartTime = -1;
+			int rowWave = 0;
+			int startTimeEnd = digitsEnd(line, 0);
+			if (startTimeEnd > 0 && startTimeEnd < 19 && startTimeEnd < line.length() && line.charAt(startTimeEnd) == ',')
+			{
+				int waveEnd = digitsEnd(line, startTimeEnd + 1);
+				if (waveEnd > startTimeEnd + 1 && waveEnd - startTimeEnd <= 3 && waveEnd < line.length()
+					&& line.charAt(waveEnd) == ',')
+				{
+					rowStartTime = Long.parseLong(line.substring(0, startTimeEnd));
+					rowWave = Integer.parseInt(line.substring(startTimeEnd + 1, waveEnd));
+				}
+			}
+
+			int textStart = 0;
+			int marker = line.indexOf(LINK_MARKER);
+			while (marker >= 0)
+			{
+				if (rowStartTime < 0)
+				{
+					textWave = lastWaveNumber(line, textStart, marker, textWave);
+				}
+
+				int start = marker + LINK_MARKER.length();
+				int end = start;
+				while (end < line.length() && isLinkChar(line.charAt(end)))
+				{
+					end++;
+				}
+
+				if (decoder.decode(line, start, end) && decoder.getCount() > 0)
+				{
+					add(rowStartTime, rowStartTime < 0 ? textWave : rowWave);
+					links++;
+				}
+				textStart = end;
+				marker = line.indexOf(LINK_MARKER, end);
+			}
+
+			if (rowStartTime < 0)
+			{
+				textWave = lastWaveNumber(line, textStart, line.length(), textWave);
+			}
+		}
+
+		void finish()
+		{
+			endRun();
+			if (!batch.isEmpty())
+			{
+				sink.accept(batch);
+				batch.clear();
+			}
+		}
+
+		/**
+		 * Adds the decoded link to the run being grouped, or starts a new one.
+		 *
+		 * @param rowStartTime the start time of the run in an export, or -1 for a link in other text
+		 */
+		private void add(long rowStartTime, int wave)
+		{
+			int[] codes = decoder.copyCodes();
+			boolean spawn = decoder.isWaveSpawn();
+			boolean mantimayhem3 = decoder.isMantimayhem3();
+			if (wave < 1 || wave > RunAnalysis.MAX_WAVE)
+			{
+				endRun();
+				emit(new RunRecord(nextStartTime++, Collections.singletonList(wave(0, codes, spawn, mantimayhem3)), true));
+				return;
+			}
+
+			WaveRecord last = waves == null || waves.isEmpty() ? null : waves.get(waves.size() - 1);
+			boolean extendsRun = waves != null && (rowStartTime < 0 || rowStartTime == startTime)
+				&& (last == null || last.getWave() < wave
+					|| last.getWave() == wave && (spawn ? last.getSpawns().length == 0 : !last.hasReinforcements()));
+			if (!extendsRun)
+			{
+				endRun();
+				waves = new ArrayList<>();
+				startTime = rowStartTime < 0 ? nextStartTime++ : rowStartTime;
+				waves.add(wave(wave, codes, spawn, mantimayhem3));
+			}
+			else if (last != null && last.getWave() == wave)
+			{
+				// The other capture of the same wave
+				boolean waveMantimayhem3 = mantimayhem3 || last.isMantimayhem3();
+				waves.set(waves.size() - 1, spawn
+					? new WaveRecord(wave, codes, last.getReinforcements(), decoder.getPlayer(),
+						last.getPlayerAtReinforcements(), -1, waveMantimayhem3, modifiers(waveMantimayhem3), 0, null)
+					: new WaveRecord(wave, last.getSpawns(), codes, last.getPlayerAtSpawn(), decoder.getPlayer(), -1,
+						waveMantimayhem3, modifiers(waveMantimayhem3), 0, null));
+			}
+			else
+			{
+				waves.add(wave(wave, codes, spawn, mantimayhem3));
+			}
+		}
+
+		private WaveRecord wave(int wave, int[] codes, boolean spawn, boolean mantimayhem3)
+		{
+			// A link carries no timings
+			return spawn
+				? new WaveRecord(wave, codes, NO_CODES, decoder.getPlayer(), LosUrls.NO_PLAYER, -1, mantimayhem3,
+					modifiers(mantimayhem3), 0, null)
+				: new WaveRecord(wave, NO_CODES, codes, LosUrls.NO_PLAYER, decoder.getPlayer(), -1, mantimayhem3,
+					modifiers(mantimayhem3), 0, null);
+		}
+
+		private void endRun()
+		{
+			if (waves != null)
+			{
+				emit(new RunRecord(startTime, waves, true));
+				waves = null;
+			}
+		}
+
+		private void emit(RunRecord run)
+		{
+			batch.add(run);
+			if (batch.size() == BATCH_SIZE)
+			{
+				sink.accept(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	private static int modifiers(boolean mantimayhem3)
+	{
+		// A link only tells whether Mantimayhem is at least level 3
+		return mantimayhem3 ? ColosseumModifiers.withLevel(0, ColosseumModifiers.Modifier.MANTIMAYHEM, 3) : 0;
+	}
+
+	/**
+	 * The number after the last "Wave" or "Wave:" between {@code start} and {@code end}, ignoring case, or
+	 * {@code current} if there is none.
+	 */
+	static int lastWaveNumber(String text, int start, int end, int current)
+	{
+		int wave = current;
+		for (int i = start; i + WAVE_MARKER.length() < end; i++)
+		{
+			if (!text.regionMatches(true, i, WAVE_MARKER, 0, WAVE_MARKER.length()))
+			{
+				continue;
+			}
+
+			int digits = i + WAVE_MARKER.length();
+			if (digits < end && text.charAt(digits) == ':')
+			{
+				digits++;
+			}
+			while (digits < end && text.charAt(digits) == ' ')
+			{
+				digits++;
+			}
+
+			int digitsEnd = Math.min(digitsEnd(text, digits), end);
+			if (digitsEnd > digits && digitsEnd - digits <= 2)
+			{
+				wave = Integer.parseInt(text.substring(digits, digitsEnd));
+			}
+			i = digits - 1;
+		}
+		return wave;
+	}
+
+	private static int digitsEnd(String text, int start)
+	{
+		int i = start;
+		while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9')
+		{
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isLinkChar(char c)
+	{
+		return (c >= '0' && c <= '9') || c == '.' || c == '#' || c == '_'
+			|| c == 'u' || c == 'm' || c == 'r' || c == 'M' || c == 'w' || c == 's';
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+/**
+ * Stores finished runs as JSON lines under {@code .runelite/colosseum-waves}.
+ * <p>
+ * Runs recorded by every client on the machine are appended to {@code runs.jsonl}. Any other {@code .jsonl} file
+ * in the directory, such as an archive copied over from another account, is read as part of the archive.
+ */
+@Slf4j
+@Singleton
+public class RunStore
+{
+	static final File STORE_DIR = new File(RuneLite.RUNELITE_DIR, "colosseum-waves");
+	private static final String RUNS_FILE = "runs.jsonl";
+	private static final String ARCHIVE_EXTENSION = ".jsonl";
+
+	private final Gson gson;
+	private final File storeDir;
+
+	@Inject
+	RunStore(Gson gson)
+	{
+		this(gson, STORE_DIR);
+	}
+
+	RunStore(Gson gson, File storeDir)
+	{
+		this.gson = gson;
+		this.storeDir = storeDir;
+	}
+
+	/**
+	 * Appends a run to the run file.
+	 *
+	 * @return the offset of the run in the file, for {@link #readAt(long)}, or -1 if it could not be saved
+	 */
+	public long append(RunRecord run)
+	{
+		try
+		{
+			return write(StandardCharsets.UTF_8.encode(gson.toJson(run) + "\n"));
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save Colosseum run", e);
+			return -1;
+		}
+	}
+
+	/**
+	 * Appends several runs with a single write.
+	 *
+	 * @return false if they could not be saved
+	 */
+	public boolean appendAll(List<RunRecord> runs)
+	{
+		StringBuilder sb = new StringBuilder(runs.size() * 256);
+		for (RunRecord run : runs)
+		{
+			sb.append(gson.toJson(run)).append('\n');
+		}
+
+		try
+		{
+			write(StandardCharsets.UTF_8.encode(sb.toString()));
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save Colosseum runs", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes whole lines to the end of the run file.
+	 * <p>
+	 * The run file is shared by every client on the machine, so the write holds an exclusive lock on the file. The
+	 * lock is only held while the already encoded lines are written, and readers never take it.
+	 *
+	 * @return the offset the lines were written at
+	 */
+	private synchronized long write(ByteBuffer lines) throws IOException
+	{
+		Path file = runsFile();
+		Files.createDirectories(file.getParent());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock lock = channel.lock())
+		{
+			long offset = channel.size();
+			channel.position(offset);
+			while (lines.hasRemaining())
+			{
+				channel.write(lines);
+			}
+			return offset;
+		}
+	}
+
+	/**
+	 * Reads the run file from {@code offset} up to its last complete line. Runs appended by any client sharing the
+	 * store are picked up this way without reading the file again from the start, and a line another client is still
+	 * writing is left for the next call.
+	 *
+	 * @param lineOffsets receives the offset of each run found, in file order, and returns whether to read the run
+	 * @param runs receives the runs {@code lineOffsets} asked for, or null to only find offsets
+	 * @return the offset to continue from next time
+	 */
+	public long tail(long offset, LongPredicate lineOffsets, @Nullable Consumer<RunRecord> runs)
+	{
+		Path file = runsFile();
+		if (!Files.exists(file))
+		{
+			return offset;
+		}
+
+		long lineStart = offset;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			channel.position(offset);
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+			long position = offset;
+			while (channel.read(buffer) > 0)
+			{
+				buffer.flip();
+				while (buffer.hasRemaining())
+				{
+					byte b = buffer.get();
+					position++;
+					if (b != '\n')
+					{
+						if (runs != null)
+						{
+							line.write(b);
+						}
+						continue;
+					}
+
+					if (position - 1 > lineStart)
+					{
+						if (lineOffsets.test(lineStart) && runs != null)
+						{
+							parse(line.toString(StandardCharsets.UTF_8), file, runs);
+						}
+					}
+					line.reset();
+					lineStart = position;
+				}
+				buffer.clear();
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read Colosseum runs", e);
+		}
+		return lineStart;
+	}
+
+	private void parse(String line, Path file, Consumer<RunRecord> consumer)
+	{
+		try
+		{
+			consumer.accept(gson.fromJson(line, RunRecord.class));
+		}
+		catch (JsonParseException e)
+		{
+			log.debug("Skipping malformed run in {}", file, e);
+		}
+	}
+
+	/**
+	 * Reads back the run at an offset returned by {@link #append(RunRecord)} or {@link #tail}.
+	 */
+	@Nullable
+	public RunRecord readAt(long offset)
+	{
+		try (RandomAccessFile file = new RandomAccessFile(runsFile().toFile(), "r"))
+		{
+			file.seek(offset);
+			ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+			byte[] buffer = new byte[4096];
+			int read;
+			outer:
+			while ((read = file.read(buffer)) != -1)
+			{
+				for (int i = 0; i < read; i++)
+				{
+					if (buffer[i] == '\n')
+					{
+						line.write(buffer, 0, i);
+						break outer;
+					}
+				}
+				line.write(buffer, 0, read);
+			}
+			return gson.fromJson(line.toString(StandardCharsets.UTF_8), RunRecord.class);
+		}
+		catch (IOException | JsonParseException e)
+		{
+			log.warn("Unable to read Colosseum run at {}", offset, e);
+			return null;
+		}
+	}
+
+	private Path runsFile()
+	{
+		return file(RUNS_FILE);
+	}
+
+	/**
+	 * A file in the store directory, for state kept alongside the runs.
+	 */
+	Path file(String name)
+	{
+		return storeDir.toPath().resolve(name);
+	}
+
+	/**
+	 * Reads every run in the archive directory.
+	 */
+	public List<RunRecord> readArchive()
+	{
+		List<RunRecord> runs = new ArrayList<>();
+		forEachRun(runs::add);
+		return runs;
+	}
+
+	/**
+	 * Streams every run in the archive directory without holding them all in memory.
+	 */
+	public void forEachRun(Consumer<RunRecord> consumer)
+	{
+		File[] files = storeDir.listFiles((dir, name) -> name.endsWith(ARCHIVE_EXTENSION));
+		if (files == null)
+		{
+			return;
+		}
+
+		for (File file : files)
+		{
+			read(file.toPath(), consumer);
+		}
+	}
+
+	/**
+	 * Streams every run in the archive files other than the run file, which can be followed with {@link #tail}
+	 * instead.
+	 */
+	public void forEachArchivedRun(Consumer<RunRecord> consumer)
+	{
+		for (File file : archivedFiles())
+		{
+			read(file.toPath(), consumer);
+		}
+	}
+
+	/**
+	 * A hash of the name, size and modification time of every archive file other than the run file, which changes
+	 * whenever one of them is added, removed or replaced.
+	 */
+	public long archiveFingerprint()
+	{
+		long fingerprint = 0;
+		for (File file : archivedFiles())
+		{
+			// Summed so the order the directory lists files in does not matter
+			long hash = file.getName().hashCode();
+			hash = hash * 31 + file.length();
+			hash = hash * 31 + file.lastModified();
+			fingerprint += hash * 0x9E3779B97F4A7C15L;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * The length of the run file, 0 if nothing has been saved yet.
+	 */
+	public long runFileLength()
+	{
+		return runsFile().toFile().length();
+	}
+
+	private File[] archivedFiles()
+	{
+		File[] files = storeDir.listFiles((dir, name) -> name.endsWith(ARCHIVE_EXTENSION) && !name.equals(RUNS_FILE));
+		return files == null ? new File[0] : files;
+	}
+
+	private void read(Path file, Consumer<RunRecord> consumer)
+	{
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.isEmpty())
+				{
+					continue;
+				}
+
+				parse(line, file, consumer);
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read Colosseum runs from {}", file, e);
+		}
+	}
+}
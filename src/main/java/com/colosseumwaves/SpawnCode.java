@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+
+/**
+ * Packs a single LoS spawn code into an int.
+ * <p>
+ * A code holds the LoS tile, the LoS NPC type and, for manticores, the orb suffix that follows the
+ * {@code XXYYT} part of the code in a link (for example {@code u}, {@code ur} or {@code urmM}).
+ * The bit layout is {@code x:8 | y:8 | type:3 | uncharged:1 | orbs:6}, so sorting codes orders them by
+ * tile first and {@link #key(int)} drops the manticore state when only the tile and type matter.
+ */
+final class SpawnCode
+{
+	static final int NONE = 0;
+	// LoS type of the manticore, the only NPC with a manticore state
+	static final int MANTICORE = 4;
+
+	static final int ORB_NONE = 0;
+	static final int ORB_MAGIC = 1;
+	static final int ORB_RANGED = 2;
+	static final int ORB_MELEE = 3;
+
+	private static final char[] ORB_CHARS = {0, 'm', 'r', 'M'};
+	private static final String[] TYPE_NAMES = {
+		"Unknown", "Serpent shaman", "Javelin Colossus", "Jaguar warrior", "Manticore", "Minotaur", "Shockwave Colossus"
+	};
+
+	private static final int STATE_BITS = 7;
+	private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+	private static final int UNCHARGED_FLAG = 1 << 6;
+	private static final int TYPE_SHIFT = STATE_BITS;
+	private static final int Y_SHIFT = TYPE_SHIFT + 3;
+	private static final int X_SHIFT = Y_SHIFT + 8;
+
+	private SpawnCode()
+	{
+	}
+
+	static int pack(int losX, int losY, int losType, int manticoreState)
+	{
+		return (losX & 0xFF) << X_SHIFT
+			| (losY & 0xFF) << Y_SHIFT
+			| (losType & 0x7) << TYPE_SHIFT
+			| (manticoreState & STATE_MASK);
+	}
+
+	static int x(int code)
+	{
+		return code >>> X_SHIFT & 0xFF;
+	}
+
+	static int y(int code)
+	{
+		return code >>> Y_SHIFT & 0xFF;
+	}
+
+	static int type(int code)
+	{
+		return code >>> TYPE_SHIFT & 0x7;
+	}
+
+	static String typeName(int type)
+	{
+		return type > 0 && type < TYPE_NAMES.length ? TYPE_NAMES[type] : TYPE_NAMES[0];
+	}
+
+	static int manticoreState(int code)
+	{
+		return code & STATE_MASK;
+	}
+
+	/**
+	 * The tile and type of a code, without the manticore state.
+	 */
+	static int key(int code)
+	{
+		return code >>> STATE_BITS;
+	}
+
+	/**
+	 * The {@link #key(int)} of each code, sorted, so two spawn sets can be compared whatever order they were
+	 * captured in and whatever the manticores' orbs.
+	 */
+	static int[] sortedKeys(int[] codes)
+	{
+		int[] keys = new int[codes.length];
+		for (int i = 0; i < codes.length; i++)
+		{
+			keys[i] = key(codes[i]);
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	static boolean isUnchargedAtCapture(int code)
+	{
+		return (code & UNCHARGED_FLAG) != 0;
+	}
+
+	/**
+	 * Orb at {@code position} (0-2) of the manticore state, or {@link #ORB_NONE}.
+	 */
+	static int orb(int code, int position)
+	{
+		return code >>> (4 - 2 * position) & 0x3;
+	}
+
+	/**
+	 * The three orbs of the manticore state as a 6-bit value, first orb in the high bits.
+	 */
+	static int orbs(int code)
+	{
+		return code & 0x3F;
+	}
+
+	static int manticoreState(boolean unchargedAtCapture, int firstOrb, int secondOrb, int thirdOrb)
+	{
+		return (unchargedAtCapture ? UNCHARGED_FLAG : 0) | firstOrb << 4 | secondOrb << 2 | thirdOrb;
+	}
+
+	/**
+	 * Parses a manticore suffix such as {@code u}, {@code m} or {@code urmM}.
+	 *
+	 * @return the packed state, or -1 if a character is not part of the suffix alphabet
+	 */
+	static int parseManticoreState(CharSequence suffix, int start, int end)
+	{
+		int state = 0;
+		int position = 0;
+		for (int i = start; i < end; i++)
+		{
+			char c = suffix.charAt(i);
+			if (c == 'u' && i == start)
+			{
+				state |= UNCHARGED_FLAG;
+				continue;
+			}
+
+			int orb = orbFromChar(c);
+			if (orb == ORB_NONE || position == 3)
+			{
+				return -1;
+			}
+			state |= orb << (4 - 2 * position++);
+		}
+		return state;
+	}
+
+	static int orbFromChar(char c)
+	{
+		switch (c)
+		{
+			case 'm':
+				return ORB_MAGIC;
+			case 'r':
+				return ORB_RANGED;
+			case 'M':
+				return ORB_MELEE;
+			default:
+				return ORB_NONE;
+		}
+	}
+
+	/**
+	 * Appends the code as it appears in a LoS link, without the trailing separator.
+	 */
+	static void append(StringBuilder sb, int code)
+	{
+		appendTwoDigits(sb, x(code));
+		appendTwoDigits(sb, y(code));
+		sb.append((char) ('0' + type(code)));
+		appendManticoreSuffix(sb, code);
+	}
+
+	static void appendManticoreSuffix(StringBuilder sb, int code)
+	{
+		if (isUnchargedAtCapture(code))
+		{
+			sb.append('u');
+		}
+		for (int i = 0; i < 3; i++)
+		{
+			int orb = orb(code, i);
+			if (orb == ORB_NONE)
+			{
+				break;
+			}
+			sb.append(ORB_CHARS[orb]);
+		}
+	}
+
+	private static void appendTwoDigits(StringBuilder sb, int value)
+	{
+		if (value < 10)
+		{
+			sb.append('0');
+		}
+		sb.append(value);
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A Bloom filter of every spawn set seen on each wave in the archive, answering at capture time whether a wave's
+ * spawn set is new without loading the archive.
+ * <p>
+ * A spawn set's signature is a 64-bit hash of the wave and its sorted spawn keys ({@link SpawnCode#key(int)}, the
+ * tile and type), so like {@link SpawnIndex} it ignores spawn order and manticore orbs. The filter is saved to
+ * {@code spawn-filter.bin} in the run store along with the run file offset it covers, and kept current by tailing
+ * the run file from there. It is only rebuilt from the whole archive when another archive file changes or the run
+ * file shrinks. A "new" answer is always right, a "seen before" answer is wrong at the false-positive rate.
+ */
+@Slf4j
+@Singleton
+public class SpawnFilter
+{
+	private static final String FILE_NAME = "spawn-filter.bin";
+	private static final int MAGIC = 'C' | 'W' << 8 | 'S' << 16 | 'F' << 24;
+	private static final int VERSION = 1;
+	// 2^21 bits (256 KB) and 7 hashes stay under 0.1% false positives up to about 120,000 distinct spawn sets
+	private static final int BITS_LOG2 = 21;
+	private static final int BIT_MASK = (1 << BITS_LOG2) - 1;
+	private static final int HASHES = 7;
+	private static final int HEADER_SIZE = 40;
+
+	private final RunStore runStore;
+	// Serializes updates; the filter lock is only held while bits are set or tested
+	private final Object updateLock = new Object();
+
+	private long[] bits = new long[1 << BITS_LOG2 - 6];
+	private long distinct;
+	private long runFileOffset;
+	private long archiveFingerprint;
+	private volatile boolean loaded;
+
+	@Inject
+	SpawnFilter(RunStore runStore)
+	{
+		this.runStore = runStore;
+	}
+
+	/**
+	 * Whether no archived run had this spawn set on this wave. Always false until the filter has loaded.
+	 */
+	public boolean isNovel(int wave, int[] codes)
+	{
+		if (!loaded || codes.length == 0)
+		{
+			return false;
+		}
+
+		long signature = signature(wave, codes);
+		synchronized (this)
+		{
+			return !contains(bits, signature);
+		}
+	}
+
+	/**
+	 * Loads the saved filter, or builds it from the archive if it is missing or stale, then adds the runs saved
+	 * since and saves it again. Run this off the client thread.
+	 */
+	public void update()
+	{
+		synchronized (updateLock)
+		{
+			boolean changed = false;
+			if (!loaded && load())
+			{
+				loaded = true;
+			}
+
+			if (!loaded || archiveFingerprint != runStore.archiveFingerprint() || runFileOffset > runStore.runFileLength())
+			{
+				rebuild();
+				loaded = true;
+				changed = true;
+			}
+
+			long before = distinctCount();
+			runFileOffset = runStore.tail(runFileOffset, offset -> true, this::add);
+			if (changed || distinctCount() != before)
+			{
+				save();
+			}
+		}
+	}
+
+	private synchronized long distinctCount()
+	{
+		return distinct;
+	}
+
+	private synchronized void add(RunRecord run)
+	{
+		distinct += insert(bits, run);
+	}
+
+	private void rebuild()
+	{
+		long startNanos = System.nanoTime();
+		long[] rebuilt = new long[bits.length];
+		long[] count = new long[1];
+		long fingerprint = runStore.archiveFingerprint();
+		runStore.forEachArchivedRun(run -> count[0] += insert(rebuilt, run));
+		long offset = runStore.tail(0, o -> true, run -> count[0] += insert(rebuilt, run));
+
+		synchronized (this)
+		{
+			bits = rebuilt;
+			distinct = count[0];
+		}
+		runFileOffset = offset;
+		archiveFingerprint = fingerprint;
+		log.debug("Spawn filter rebuilt with {} spawn sets in {}us", count[0], (System.nanoTime() - startNanos) / 1000);
+	}
+
+	private boolean load()
+	{
+		Path file = filterFile();
+		if (!Files.exists(file))
+		{
+			return false;
+		}
+
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			if (buffer.remaining() != HEADER_SIZE + bits.length * Long.BYTES
+				|| buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+				|| buffer.getInt() != BITS_LOG2 || buffer.getInt() != HASHES)
+			{
+				return false;
+			}
+
+			long offset = buffer.getLong();
+			long fingerprint = buffer.getLong();
+			long count = buffer.getLong();
+			long[] loadedBits = new long[bits.length];
+			buffer.asLongBuffer().get(loadedBits);
+			synchronized (this)
+			{
+				bits = loadedBits;
+				distinct = count;
+			}
+			runFileOffset = offset;
+			archiveFingerprint = fingerprint;
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read the spawn filter, rebuilding it", e);
+			return false;
+		}
+	}
+
+	private void save()
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bits.length * Long.BYTES);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(BITS_LOG2).putInt(HASHES)
+			.putLong(runFileOffset).putLong(archiveFingerprint);
+		synchronized (this)
+		{
+			buffer.putLong(distinct);
+			buffer.asLongBuffer().put(bits);
+		}
+
+		// Written aside and moved over the old filter so another client never reads half a filter
+		Path file = filterFile();
+		Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+		try
+		{
+			Files.createDirectories(file.getParent());
+			Files.write(temp, buffer.array());
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to save the spawn filter", e);
+		}
+	}
+
+	private Path filterFile()
+	{
+		return runStore.file(FILE_NAME);
+	}
+
+	/**
+	 * @return the number of the run's spawn sets that were not already in {@code bits}
+	 */
+	private static int insert(long[] bits, RunRecord run)
+	{
+		int added = 0;
+		for (WaveRecord wave : run.getWaves())
+		{
+			if (wave.getSpawns().length > 0 && insert(bits, signature(wave.getWave(), wave.getSpawns())))
+			{
+				added++;
+			}
+		}
+		return added;
+	}
+
+	private static boolean insert(long[] bits, long signature)
+	{
+		boolean added = false;
+		int h1 = (int) signature;
+		int h2 = (int) (signature >>> 32) | 1;
+		for (int i = 0; i < HASHES; i++)
+		{
+			int bit = h1 + i * h2 & BIT_MASK;
+			long mask = 1L << bit;
+			if ((bits[bit >>> 6] & mask) == 0)
+			{
+				bits[bit >>> 6] |= mask;
+				added = true;
+			}
+		}
+		return added;
+	}
+
+	private static boolean contains(long[] bits, long signature)
+	{
+		int h1 = (int) signature;
+		int h2 = (int) (signature >>> 32) | 1;
+		for (int i = 0; i < HASHES; i++)
+		{
+			int bit = h1 + i * h2 & BIT_MASK;
+			if ((bits[bit >>> 6] & 1L << bit) == 0)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hashes the wave and its sorted spawn keys.
+	 */
+	static long signature(int wave, int[] codes)
+	{
+		long hash = mix(wave);
+		for (int key : SpawnCode.sortedKeys(codes))
+		{
+			hash = mix(hash + key);
+		}
+		return hash;
+	}
+
+	private static long mix(long value)
+	{
+		// The SplitMix64 finalizer
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+		return z ^ z >>> 31;
+	}
+}
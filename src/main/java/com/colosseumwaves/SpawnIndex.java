@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import lombok.Value;
+
+/**
+ * Index of the spawn sets seen on each wave in previous runs, used to predict the rest of a wave from the first
+ * NPCs to spawn.
+ * <p>
+ * Each distinct set of spawn keys ({@link SpawnCode#key(int)}, the tile and type) is a group, and every key maps
+ * to the groups containing it. A lookup walks the shortest posting list of the keys seen so far and keeps the most
+ * common group containing all of them, so it takes microseconds and allocates only the result.
+ * <p>
+ * Writers never change an index a lookup can see. {@link #rebuild} builds a whole new index and {@link #add} copies
+ * the indices of the waves it touches, and either publishes the result through a volatile field, so
+ * {@link #predict} on the client thread never waits for a rebuild on the executor.
+ */
+@Singleton
+public class SpawnIndex
+{
+	@Value
+	public static class Prediction
+	{
+		int wave;
+		// Spawn codes of the most common spawn set containing the NPCs seen so far
+		int[] spawns;
+		// Reinforcement codes most often captured after that spawn set, empty if none were recorded
+		int[] reinforcements;
+		// Runs with that spawn set, and runs with any spawn set containing the NPCs seen so far
+		int matches;
+		int candidates;
+		// Mantimayhem III state of the wave being predicted, for the reinforcement link
+		boolean mantimayhem3;
+	}
+
+	private static final int[] NO_CODES = new int[0];
+
+	// Serializes rebuild and add; predict only reads the published waves
+	private final Object writeLock = new Object();
+	private volatile WaveIndex[] waves = emptyWaves();
+
+	/**
+	 * Replaces the index with one of the runs {@code runs} passes to its consumer, such as
+	 * {@link RunStore#forEachRun}. Lookups keep using the old index until the new one is complete.
+	 */
+	public void rebuild(Consumer<Consumer<RunRecord>> runs)
+	{
+		synchronized (writeLock)
+		{
+			WaveIndex[] rebuilt = emptyWaves();
+			runs.accept(run -> add(rebuilt, run, null));
+			waves = rebuilt;
+		}
+	}
+
+	public void add(RunRecord run)
+	{
+		synchronized (writeLock)
+		{
+			WaveIndex[] current = waves;
+			WaveIndex[] updated = current.clone();
+			add(updated, run, current);
+			waves = updated;
+		}
+	}
+
+	/**
+	 * Adds a run's waves to {@code into}. When {@code published} is given, a wave index still shared with it is
+	 * copied before it is changed.
+	 */
+	private static void add(WaveIndex[] into, RunRecord run, @Nullable WaveIndex[] published)
+	{
+		for (WaveRecord wave : run.getWaves())
+		{
+			int waveNumber = wave.getWave();
+			if (waveNumber > 0 && waveNumber < into.length && wave.getSpawns().length > 0)
+			{
+				if (published != null && into[waveNumber] == published[waveNumber])
+				{
+					into[waveNumber] = published[waveNumber].copy();
+				}
+				into[waveNumber].add(wave);
+			}
+		}
+	}
+
+	private static WaveIndex[] emptyWaves()
+	{
+		WaveIndex[] waves = new WaveIndex[RunAnalysis.MAX_WAVE + 1];
+		for (int wave = 1; wave < waves.length; wave++)
+		{
+			waves[wave] = new WaveIndex();
+		}
+		return waves;
+	}
+
+	/**
+	 * Predicts the full spawn set of a wave from the spawns seen so far.
+	 *
+	 * @param mantimayhem3 whether Mantimayhem III is active on the wave, carried into the prediction
+	 */
+	@Nullable
+	public Prediction predict(int wave, int[] seenCodes, boolean mantimayhem3)
+	{
+		WaveIndex[] current = waves;
+		if (wave <= 0 || wave >= current.length || seenCodes.length == 0)
+		{
+			return null;
+		}
+		return current[wave].predict(wave, seenCodes, mantimayhem3);
+	}
+
+	private static final class KeySet
+	{
+		private final int[] keys;
+		private final int hash;
+
+		KeySet(int[] keys)
+		{
+			this.keys = keys;
+			this.hash = Arrays.hashCode(keys);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof KeySet && Arrays.equals(keys, ((KeySet) o).keys);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+	private static final class Group
+	{
+		final int[] keys;
+		final int[] spawns;
+		int count;
+
+		final Map<KeySet, int[]> reinforcementCounts = new HashMap<>();
+		int[] reinforcements = NO_CODES;
+		int reinforcementCount;
+
+		Group(int[] keys, int[] spawns)
+		{
+			this.keys = keys;
+			this.spawns = spawns;
+		}
+
+		Group copy()
+		{
+			Group copy = new Group(keys, spawns);
+			copy.count = count;
+			for (Map.Entry<KeySet, int[]> entry : reinforcementCounts.entrySet())
+			{
+				copy.reinforcementCounts.put(entry.getKey(), entry.getValue().clone());
+			}
+			// Replaced rather than changed, so it can be shared
+			copy.reinforcements = reinforcements;
+			copy.reinforcementCount = reinforcementCount;
+			return copy;
+		}
+
+		boolean containsAll(int[] seenKeys)
+		{
+			for (int key : seenKeys)
+			{
+				if (Arrays.binarySearch(keys, key) < 0)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void addReinforcements(int[] codes)
+		{
+			// Counts are kept in the first element, the codes follow
+			int[] entry = reinforcementCounts.computeIfAbsent(new KeySet(SpawnCode.sortedKeys(codes)), k ->
+			{
+				int[] counted = new int[codes.length + 1];
+				System.arraycopy(codes, 0, counted, 1, codes.length);
+				return counted;
+			});
+			if (++entry[0] > reinforcementCount)
+			{
+				reinforcementCount = entry[0];
+				reinforcements = Arrays.copyOfRange(entry, 1, entry.length);
+			}
+		}
+	}
+
+	/**
+	 * Open addressing map from a spawn key to its posting list, so a lookup neither boxes the key nor allocates.
+	 */
+	private static final class Postings
+	{
+		// Keys are never negative, see SpawnCode#key
+		private static final int EMPTY = -1;
+
+		private int[] keys;
+		private int[][] lists;
+		private int size;
+
+		Postings()
+		{
+			this(16);
+		}
+
+		private Postings(int capacity)
+		{
+			keys = new int[capacity];
+			Arrays.fill(keys, EMPTY);
+			lists = new int[capacity][];
+		}
+
+		@Nullable
+		int[] get(int key)
+		{
+			int mask = keys.length - 1;
+			for (int slot = slot(key, mask); ; slot = slot + 1 & mask)
+			{
+				if (keys[slot] == key)
+				{
+					return lists[slot];
+				}
+				if (keys[slot] == EMPTY)
+				{
+					return null;
+				}
+			}
+		}
+
+		void put(int key, int[] list)
+		{
+			int mask = keys.length - 1;
+			int slot = slot(key, mask);
+			while (keys[slot] != key && keys[slot] != EMPTY)
+			{
+				slot = slot + 1 & mask;
+			}
+			boolean added = keys[slot] == EMPTY;
+			keys[slot] = key;
+			lists[slot] = list;
+			if (added && ++size * 2 > keys.length)
+			{
+				grow();
+			}
+		}
+
+		/**
+		 * A deep copy, whose posting lists can be appended to without changing this one's.
+		 */
+		Postings copy()
+		{
+			Postings copy = new Postings(keys.length);
+			for (int slot = 0; slot < keys.length; slot++)
+			{
+				if (keys[slot] != EMPTY)
+				{
+					copy.keys[slot] = keys[slot];
+					copy.lists[slot] = lists[slot].clone();
+				}
+			}
+			copy.size = size;
+			return copy;
+		}
+
+		private void grow()
+		{
+			int[] oldKeys = keys;
+			int[][] oldLists = lists;
+			keys = new int[oldKeys.length * 2];
+			Arrays.fill(keys, EMPTY);
+			lists = new int[keys.length][];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (oldKeys[i] != EMPTY)
+				{
+					int slot = slot(oldKeys[i], mask);
+					while (keys[slot] != EMPTY)
+					{
+						slot = slot + 1 & mask;
+					}
+					keys[slot] = oldKeys[i];
+					lists[slot] = oldLists[i];
+				}
+			}
+		}
+
+		private static int slot(int key, int mask)
+		{
+			int hash = key * 0x9E3779B9;
+			return (hash ^ hash >>> 16) & mask;
+		}
+	}
+
+	private static final class WaveIndex
+	{
+		private final List<Group> groups;
+		private final Map<KeySet, Group> groupsByKeys;
+		// Spawn key to the indices of the groups containing it
+		private final Postings postings;
+
+		WaveIndex()
+		{
+			this(new ArrayList<>(), new HashMap<>(), new Postings());
+		}
+
+		private WaveIndex(List<Group> groups, Map<KeySet, Group> groupsByKeys, Postings postings)
+		{
+			this.groups = groups;
+			this.groupsByKeys = groupsByKeys;
+			this.postings = postings;
+		}
+
+		/**
+		 * A deep copy, which can be added to while this one is still being read.
+		 */
+		WaveIndex copy()
+		{
+			List<Group> copiedGroups = new ArrayList<>(groups.size() + 1);
+			Map<KeySet, Group> copiedByKeys = new HashMap<>(groupsByKeys.size() * 2);
+			for (Group group : groups)
+			{
+				Group copy = group.copy();
+				copiedGroups.add(copy);
+				copiedByKeys.put(new KeySet(copy.keys), copy);
+			}
+			return new WaveIndex(copiedGroups, copiedByKeys, postings.copy());
+		}
+
+		void add(WaveRecord wave)
+		{
+			int[] keys = SpawnCode.sortedKeys(wave.getSpawns());
+			KeySet keySet = new KeySet(keys);
+			Group group = groupsByKeys.get(keySet);
+			if (group == null)
+			{
+				group = new Group(keys, wave.getSpawns().clone());
+				int groupIndex = groups.size();
+				groups.add(group);
+				groupsByKeys.put(keySet, group);
+
+				for (int i = 0; i < keys.length; i++)
+				{
+					if (i > 0 && keys[i] == keys[i - 1])
+					{
+						continue;
+					}
+
+					// Posting lists keep their length in the first element
+					int[] posting = postings.get(keys[i]);
+					if (posting == null)
+					{
+						posting = new int[]{0, 0, 0, 0};
+					}
+					if (posting[0] + 1 == posting.length)
+					{
+						posting = Arrays.copyOf(posting, posting.length * 2);
+					}
+					posting[++posting[0]] = groupIndex;
+					postings.put(keys[i], posting);
+				}
+			}
+
+			group.count++;
+			if (wave.hasReinforcements())
+			{
+				group.addReinforcements(wave.getReinforcements());
+			}
+		}
+
+		@Nullable
+		Prediction predict(int wave, int[] seenCodes, boolean mantimayhem3)
+		{
+			int[] seenKeys = SpawnCode.sortedKeys(seenCodes);
+			int[] shortest = null;
+			for (int key : seenKeys)
+			{
+				int[] posting = postings.get(key);
+				if (posting == null)
+				{
+					return null;
+				}
+				if (shortest == null || posting[0] < shortest[0])
+				{
+					shortest = posting;
+				}
+			}
+
+			Group best = null;
+			int candidates = 0;
+			for (int i = 1; i <= shortest[0]; i++)
+			{
+				Group group = groups.get(shortest[i]);
+				if (group.containsAll(seenKeys))
+				{
+					candidates += group.count;
+					if (best == null || group.count > best.count)
+					{
+						best = group;
+					}
+				}
+			}
+
+			if (best == null)
+			{
+				return null;
+			}
+			return new Prediction(wave, best.spawns.clone(), best.reinforcements.clone(), best.count, candidates,
+				mantimayhem3);
+		}
+	}
+}
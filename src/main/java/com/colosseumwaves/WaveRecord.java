@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import lombok.Value;
+
+/**
+ * A captured wave: the spawn and reinforcement codes as they appear in the wave's LoS links.
+ */
+@Value
+public class WaveRecord
+{
+	int wave;
+	int[] spawns;
+	int[] reinforcements;
+	// Always captured; whether a link includes the player tile is up to the config
+	int playerAtSpawn;
+	int playerAtReinforcements;
+	// Ticks between the wave starting and reinforcements spawning, -1 if none spawned
+	int reinforcementTick;
+	boolean mantimayhem3;
+	// Packed modifier levels at the start of the wave, see ColosseumModifiers; 0 for waves stored before it existed
+	int modifiers;
+	// Ticks from the wave starting to it being completed, 0 if it was not completed or not recorded
+	int durationTicks;
+	// Ticks from the wave starting to each NPC despawning, spawns first then reinforcements; null if not recorded
+	int[] despawnTicks;
+
+	public boolean hasReinforcements()
+	{
+		return reinforcements.length > 0;
+	}
+
+	/**
+	 * Ticks from the wave starting to an NPC despawning, -1 if it did not despawn or was not recorded.
+	 *
+	 * @param index the NPC's index in the spawns, or the number of spawns plus its index in the reinforcements
+	 */
+	public int getDespawnTick(int index)
+	{
+		return despawnTicks == null || index >= despawnTicks.length ? -1 : despawnTicks[index];
+	}
+
+	public String getSpawnUrl()
+	{
+		return getSpawnUrl(true);
+	}
+
+	public String getSpawnUrl(boolean includePlayer)
+	{
+		return LosUrls.build(spawns, includePlayer ? playerAtSpawn : LosUrls.NO_PLAYER, true, mantimayhem3);
+	}
+
+	public String getReinforcementUrl()
+	{
+		return getReinforcementUrl(true);
+	}
+
+	public String getReinforcementUrl(boolean includePlayer)
+	{
+		return LosUrls.build(reinforcements, includePlayer ? playerAtReinforcements : LosUrls.NO_PLAYER, false, mantimayhem3);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import lombok.Value;
+
+/**
+ * An immutable copy of a wave capture, published once the capture's LoS link has been built and again whenever
+ * the link changes, such as when a manticore's orb pattern completes.
+ * <p>
+ * The latest snapshot is available from {@link ColosseumWavesPlugin#getLatestSnapshot()} on any thread, and each
+ * snapshot is posted to the event bus for other plugins.
+ */
+@Value
+public class WaveSnapshot
+{
+	int wave;
+	boolean reinforcements;
+	// Client tick the snapshot was taken on
+	int tick;
+	int[] spawns;
+	int playerLocation;
+	boolean mantimayhem3;
+	// Packed modifier levels, see ColosseumModifiers
+	int modifiers;
+	String url;
+
+	/**
+	 * @param spawns copied, so the snapshot stays unchanged whatever the caller does with its array afterwards
+	 */
+	public WaveSnapshot(int wave, boolean reinforcements, int tick, int[] spawns, int playerLocation,
+		boolean mantimayhem3, int modifiers, String url)
+	{
+		this.wave = wave;
+		this.reinforcements = reinforcements;
+		this.tick = tick;
+		this.spawns = spawns.clone();
+		this.playerLocation = playerLocation;
+		this.mantimayhem3 = mantimayhem3;
+		this.modifiers = modifiers;
+		this.url = url;
+	}
+
+	/**
+	 * The captured {@link SpawnCode}s, including each manticore's orb state.
+	 */
+	public int[] getSpawns()
+	{
+		return spawns.clone();
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+/**
+ * Timing events of the waves in progress, kept in preallocated ring buffers so recording one never allocates.
+ * <p>
+ * Each event is a kind and an argument (the wave number or an NPC index) in one int, with the client tick it
+ * happened on in a parallel array. The current wave's duration and the tick each of its NPCs despawned are read
+ * back from the events since its start when the wave is recorded. The ring only has to hold a single wave's events,
+ * so older waves are simply overwritten. Only used from the client thread.
+ */
+final class WaveTimings
+{
+	// A wave has a few dozen events at most: its start, its end, reinforcements and a despawn per NPC
+	private static final int CAPACITY = 256;
+	private static final int MASK = CAPACITY - 1;
+	private static final int KIND_SHIFT = 24;
+	private static final int ARGUMENT_MASK = (1 << KIND_SHIFT) - 1;
+
+	private static final int WAVE_START = 1;
+	private static final int REINFORCEMENTS = 2;
+	private static final int DESPAWN = 3;
+	private static final int WAVE_END = 4;
+
+	private final int[] events = new int[CAPACITY];
+	private final int[] ticks = new int[CAPACITY];
+	// Number of events ever written; the next one goes at head & MASK
+	private long head;
+	// Position of the current wave's start event, -1 if no wave has started
+	private long waveStart = -1;
+	private int waveStartTick;
+
+	void waveStarted(int wave, int tick)
+	{
+		waveStart = head;
+		waveStartTick = tick;
+		write(WAVE_START, wave, tick);
+	}
+
+	void reinforcementsArrived(int tick)
+	{
+		write(REINFORCEMENTS, 0, tick);
+	}
+
+	void npcDespawned(int npcIndex, int tick)
+	{
+		write(DESPAWN, npcIndex, tick);
+	}
+
+	void waveEnded(int tick)
+	{
+		write(WAVE_END, 0, tick);
+	}
+
+	void clear()
+	{
+		head = 0;
+		waveStart = -1;
+	}
+
+	/**
+	 * Ticks from the current wave starting to it ending, 0 if it has not ended.
+	 */
+	int duration()
+	{
+		long end = find(WAVE_END, -1, waveStart);
+		return end < 0 ? 0 : tickAt(end) - waveStartTick;
+	}
+
+	/**
+	 * Ticks from the current wave starting to an NPC despawning, -1 if it has not despawned.
+	 *
+	 * @param reinforcement whether the NPC is a reinforcement, whose index may have belonged to an NPC killed
+	 * earlier in the wave
+	 */
+	int despawnTick(int npcIndex, boolean reinforcement)
+	{
+		long from = waveStart;
+		if (reinforcement)
+		{
+			from = find(REINFORCEMENTS, -1, waveStart);
+		}
+
+		long despawn = find(DESPAWN, npcIndex, from);
+		return despawn < 0 ? -1 : tickAt(despawn) - waveStartTick;
+	}
+
+	/**
+	 * @return the position of the first event of the kind, and argument unless it is -1, at or after {@code from},
+	 * or -1 if there is none or {@code from} has already been overwritten
+	 */
+	private long find(int kind, int argument, long from)
+	{
+		if (from < 0 || head - from > CAPACITY)
+		{
+			return -1;
+		}
+
+		for (long position = from; position < head; position++)
+		{
+			int event = events[(int) (position & MASK)];
+			if (event >>> KIND_SHIFT == kind && (argument < 0 || (event & ARGUMENT_MASK) == argument))
+			{
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	private int tickAt(long position)
+	{
+		return ticks[(int) (position & MASK)];
+	}
+
+	private void write(int kind, int argument, int tick)
+	{
+		int slot = (int) (head++ & MASK);
+		events[slot] = kind << KIND_SHIFT | argument & ARGUMENT_MASK;
+		ticks[slot] = tick;
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Developer benchmarks of the plugin's bulk paths, run with {@code ./gradlew benchmark}, or
+ * {@code ./gradlew benchmark -Pbenchmark=<name>} for one of them. They run over generated archives rather than a
+ * real one so results are comparable between machines and commits.
+ */
+public class Benchmarks
+{
+	private static final int ARCHIVE_RUNS = 50_000;
+	private static final int ROUNDS = 5;
+
+	private interface Benchmark
+	{
+		void run(List<RunRecord> archive) throws Exception;
+	}
+
+	private static final Map<String, Benchmark> BENCHMARKS = new TreeMap<>();
+
+	static
+	{
+		BENCHMARKS.put("analysis", Benchmarks::analysis);
+		BENCHMARKS.put("decoder", Benchmarks::decoder);
+		BENCHMARKS.put("export", Benchmarks::export);
+		BENCHMARKS.put("pillar-stacks", Benchmarks::pillarStacks);
+		BENCHMARKS.put("spawn-filter", Benchmarks::spawnFilter);
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		List<RunRecord> archive = TestRuns.generate(ARCHIVE_RUNS, 1);
+		for (Map.Entry<String, Benchmark> benchmark : BENCHMARKS.entrySet())
+		{
+			if (args.length == 0 || benchmark.getKey().equals(args[0]))
+			{
+				System.out.println("== " + benchmark.getKey());
+				benchmark.getValue().run(archive);
+			}
+		}
+	}
+
+	/**
+	 * {@link RunAnalysis} at 1, 2, 4, ... threads up to the core count, and the speedup over one thread.
+	 */
+	private static void analysis(List<RunRecord> archive)
+	{
+		System.out.println("threads,runs_per_second,speedup");
+		double single = 0;
+		for (int parallelism : threadCounts())
+		{
+			// Untimed first pass to let the JIT settle
+			RunAnalysis.analyze(archive, parallelism);
+			long best = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++)
+			{
+				long start = System.nanoTime();
+				RunAnalysis.analyze(archive, parallelism);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+
+			double runsPerSecond = archive.size() * 1e9 / best;
+			if (parallelism == 1)
+			{
+				single = runsPerSecond;
+			}
+			System.out.printf("%d,%.0f,%.2f%n", parallelism, runsPerSecond, runsPerSecond / single);
+		}
+	}
+
+	/**
+	 * {@link LosUrlDecoder} decoding the spawn and reinforcement links of every archived wave, on one thread.
+	 */
+	private static void decoder(List<RunRecord> archive)
+	{
+		List<String> links = new ArrayList<>();
+		long codes = 0;
+		for (RunRecord run : archive)
+		{
+			for (WaveRecord wave : run.getWaves())
+			{
+				links.add(LosUrls.build(wave.getSpawns(), wave.getPlayerAtSpawn(), true, wave.isMantimayhem3()));
+				links.add(LosUrls.build(wave.getReinforcements(), wave.getPlayerAtReinforcements(), false,
+					wave.isMantimayhem3()));
+				codes += wave.getSpawns().length + wave.getReinforcements().length;
+			}
+		}
+
+		LosUrlDecoder decoder = new LosUrlDecoder();
+		long best = Long.MAX_VALUE;
+		// Untimed first round to let the JIT settle
+		for (int round = 0; round <= ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			for (String link : links)
+			{
+				if (!decoder.decode(link, 0, link.length()))
+				{
+					throw new IllegalStateException("Undecodable link " + link);
+				}
+			}
+			if (round > 0)
+			{
+				best = Math.min(best, System.nanoTime() - start);
+			}
+		}
+		System.out.println("links_per_second,codes_per_second");
+		System.out.printf("%.0f,%.0f%n", links.size() * 1e9 / best, codes * 1e9 / best);
+	}
+
+	/**
+	 * {@link PillarStacks} following a wave of NPCs and the player walking around the arena, one tick at a time, as
+	 * the plugin does on every game tick with stack capture on.
+	 */
+	private static void pillarStacks(List<RunRecord> archive)
+	{
+		int ticks = 1_000_000;
+		int npcs = 12;
+		Random random = new Random(1);
+		// Pre-generated walks, so the timed loop measures only the tracker
+		int[] walks = new int[(ticks + 1) * (npcs + 1)];
+		for (int i = npcs + 1; i < walks.length; i++)
+		{
+			int previous = walks[i - npcs - 1];
+			int x = Math.floorMod(previous % ArenaMap.SIZE + random.nextInt(3) - 1, ArenaMap.SIZE);
+			int y = Math.floorMod(previous / ArenaMap.SIZE + random.nextInt(3) - 1, ArenaMap.SIZE);
+			walks[i] = x + ArenaMap.SIZE * y;
+		}
+
+		PillarStacks stacks = new PillarStacks();
+		long best = Long.MAX_VALUE;
+		int changes = 0;
+		// Untimed first round to let the JIT settle
+		for (int round = 0; round <= ROUNDS; round++)
+		{
+			stacks.clear();
+			long start = System.nanoTime();
+			for (int tick = 1; tick <= ticks; tick++)
+			{
+				int base = tick * (npcs + 1);
+				stacks.beginTick(walks[base] % ArenaMap.SIZE, walks[base] / ArenaMap.SIZE);
+				for (int npc = 0; npc < npcs; npc++)
+				{
+					int tile = walks[base + 1 + npc];
+					stacks.update(npc, tile % ArenaMap.SIZE, tile / ArenaMap.SIZE, 1 + npc % 6);
+				}
+				if (stacks.endTick())
+				{
+					changes++;
+				}
+			}
+			if (round > 0)
+			{
+				best = Math.min(best, System.nanoTime() - start);
+			}
+		}
+		System.out.println("npcs,ns_per_tick,ns_per_npc,stack_changes_per_tick");
+		System.out.printf("%d,%.0f,%.1f,%.3f%n", npcs, (double) best / ticks, (double) best / ticks / npcs,
+			(double) changes / (ROUNDS + 1) / ticks);
+	}
+
+	/**
+	 * {@link LinkExporter} writing the archive's links to a file at 1, 2, 4, ... threads up to the core count.
+	 */
+	private static void export(List<RunRecord> archive) throws IOException
+	{
+		LinkExporter exporter = new LinkExporter(true, true);
+		Path file = Files.createTempFile("colosseum-links", ".csv");
+		try
+		{
+			System.out.println("threads,links_per_second");
+			for (int parallelism : threadCounts())
+			{
+				exporter.export(archive::forEach, file, parallelism);
+				long best = Long.MAX_VALUE;
+				long links = 0;
+				for (int round = 0; round < ROUNDS; round++)
+				{
+					long start = System.nanoTime();
+					links = exporter.export(archive::forEach, file, parallelism);
+					best = Math.min(best, System.nanoTime() - start);
+				}
+				System.out.printf("%d,%.0f%n", parallelism, links * 1e9 / best);
+			}
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * {@link SpawnFilter} built from the first 1,000, 5,000, ... runs of the archive: the build time, archived spawn
+	 * sets it wrongly calls novel (always 0), the share of unseen spawn sets it wrongly calls seen, and the time
+	 * to generate and look up one unseen set.
+	 */
+	private static void spawnFilter(List<RunRecord> archive) throws IOException
+	{
+		System.out.println("runs,spawn_sets,build_ms,missed,false_positive_percent,probe_ns");
+		for (int runs : new int[]{1_000, 5_000, 20_000, archive.size()})
+		{
+			Path dir = Files.createTempDirectory("colosseum-store");
+			try
+			{
+				RunStore store = new RunStore(new Gson(), dir.toFile());
+				for (int from = 0; from < runs; from += 1_000)
+				{
+					store.appendAll(archive.subList(from, Math.min(from + 1_000, runs)));
+				}
+
+				SpawnFilter filter = new SpawnFilter(store);
+				long start = System.nanoTime();
+				filter.update();
+				long buildNanos = System.nanoTime() - start;
+
+				Set<Long> seen = new HashSet<>();
+				int missed = 0;
+				for (RunRecord run : archive.subList(0, runs))
+				{
+					for (WaveRecord wave : run.getWaves())
+					{
+						if (wave.getSpawns().length > 0)
+						{
+							seen.add(SpawnFilter.signature(wave.getWave(), wave.getSpawns()));
+							missed += filter.isNovel(wave.getWave(), wave.getSpawns()) ? 1 : 0;
+						}
+					}
+				}
+
+				// Probe with fresh spawn sets; the rare one that is in the archive is not counted
+				Random random = new Random(2);
+				int probes = 0;
+				int falsePositives = 0;
+				start = System.nanoTime();
+				for (int i = 0; i < 1_000_000; i++)
+				{
+					int wave = 1 + random.nextInt(RunAnalysis.MAX_WAVE);
+					int[] codes = TestRuns.codes(random, 2 + random.nextInt(5));
+					boolean novel = filter.isNovel(wave, codes);
+					if (!seen.contains(SpawnFilter.signature(wave, codes)))
+					{
+						probes++;
+						falsePositives += novel ? 0 : 1;
+					}
+				}
+				long probeNanos = (System.nanoTime() - start) / 1_000_000;
+
+				System.out.printf("%d,%d,%.1f,%d,%.4f,%d%n", runs, seen.size(), buildNanos / 1e6, missed,
+					100.0 * falsePositives / probes, probeNanos);
+			}
+			finally
+			{
+				try (Stream<Path> files = Files.walk(dir))
+				{
+					for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+					{
+						Files.delete(file);
+					}
+				}
+			}
+		}
+	}
+
+	private static int[] threadCounts()
+	{
+		int cores = Runtime.getRuntime().availableProcessors();
+		int count = 1;
+		while (1 << count - 1 < cores)
+		{
+			count++;
+		}
+
+		int[] counts = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			counts[i] = Math.min(1 << i, cores);
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.sun.management.ThreadMXBean;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import net.runelite.api.ChatMessageType;
+import net.runelite.api.Client;
+import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.NpcDespawned;
+import net.runelite.api.events.NpcSpawned;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.NpcID;
+import net.runelite.api.gameval.SpotanimID;
+import net.runelite.api.gameval.VarbitID;
+import net.runelite.client.eventbus.EventBus;
+import net.runelite.client.eventbus.Subscribe;
+
+/**
+ * Replays the recorded Colosseum event streams in a corpus directory through the plugin, failing if the link of any
+ * wave capture changes, with {@code ./gradlew replayCorpus}.
+ * <p>
+ * The replay also fails if handling the events got slower or allocates more per tick than a baseline checked in
+ * under {@code src/test/corpus-baselines}. Times depend on the machine, so {@code reference.properties} is only a
+ * documented reference; {@code ./gradlew replayCorpus -PbaselineMachine=<name> -PupdateBaseline} records a
+ * machine's own baseline in {@code <name>.properties}, and later replays with the same {@code -PbaselineMachine}
+ * are gated on it.
+ * <p>
+ * A recording is a {@code .events} file of client events, one per line, in the order the client delivers them:
+ * <pre>
+ * tick [count]                          end the current tick with a GameTick and start the next
+ * player x y                            move the local player
+ * chat message...                       a game message
+ * spawn index npc x y                   spawn an NPC, by NpcID name or id
+ * move index x y                        move an NPC
+ * despawn index                         despawn an NPC
+ * spotanims index [spotanim...]         set the spot anims an NPC shows, by SpotanimID name or id
+ * varbit varbit value                   change a varbit, by VarbitID name or id
+ * expect spawn|reinforcements wave url  the link a wave's capture must end up with
+ * </pre>
+ * Locations are LoS tiles and {@code #} starts a comment, except on {@code expect} lines where it starts the player
+ * tile of the link. Every capture a recording makes needs an {@code expect} line and every {@code expect} line a
+ * capture, so a recording cannot silently stop covering a wave.
+ * <p>
+ * The client is stood in for by {@link ReplayWorld}, the config returns its defaults and background work is
+ * dropped, so a replay never touches the run store. The cost is the time and memory spent in the plugin's event
+ * handlers per tick, over {@link #MEASURED_ROUNDS} replays of the whole corpus after {@link #WARMUP_ROUNDS} to let
+ * the JIT settle.
+ */
+public class CorpusReplay
+{
+	private static final String EXTENSION = ".events";
+	private static final int START_TICK = 1000;
+	private static final GameTick GAME_TICK = new GameTick();
+
+	private static final int WARMUP_ROUNDS = 40;
+	private static final int MEASURED_ROUNDS = 60;
+	// Timing varies a lot more from run to run than allocation does
+	private static final double TIME_TOLERANCE = 1.5;
+	private static final double ALLOCATION_TOLERANCE = 1.02;
+	private static final long ALLOCATION_SLACK = 16;
+
+	private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length != 1 && (args.length != 3 || !"--perf-gate".equals(args[1]) && !"--update-baseline".equals(args[1])))
+		{
+			System.err.println("Usage: CorpusReplay <corpus directory> [--perf-gate|--update-baseline <baseline file>]");
+			System.exit(2);
+		}
+
+		Path corpus = Paths.get(args[0]);
+		List<Recording> recordings = load(corpus);
+		if (recordings.isEmpty())
+		{
+			System.err.println("No recordings in " + corpus);
+			System.exit(1);
+		}
+
+		int changed = 0;
+		int checked = 0;
+		for (Recording recording : recordings)
+		{
+			Replay replay = new Replay(recording);
+			replay.run();
+			changed += compareLinks(recording, replay.links);
+			checked += recording.expected.size();
+		}
+		if (changed > 0)
+		{
+			System.err.println(changed + " of " + checked + " wave links changed");
+			System.exit(1);
+		}
+		System.out.println("All " + checked + " wave links of " + recordings.size() + " recordings match");
+		if (args.length == 1)
+		{
+			// The panels' Swing event thread would otherwise keep the JVM running
+			System.exit(0);
+		}
+
+		long[] cost = measure(recordings);
+		Path baselineFile = Paths.get(args[2]);
+		if ("--update-baseline".equals(args[1]))
+		{
+			writeBaseline(baselineFile, cost);
+			System.out.println("Recorded baseline of " + describe(cost) + " per tick in " + baselineFile);
+			System.exit(0);
+		}
+
+		if (!Files.exists(baselineFile))
+		{
+			System.err.println("No baseline in " + baselineFile + ", record one with ./gradlew replayCorpus"
+				+ " -PbaselineMachine=<name> -PupdateBaseline");
+			System.exit(1);
+		}
+
+		long[] baseline = readBaseline(baselineFile);
+		System.out.println("Handler cost " + describe(cost) + " per tick, baseline " + describe(baseline));
+		boolean slower = cost[0] > baseline[0] * TIME_TOLERANCE;
+		boolean allocates = THREADS.isThreadAllocatedMemorySupported()
+			&& cost[1] > baseline[1] * ALLOCATION_TOLERANCE + ALLOCATION_SLACK;
+		if (slower || allocates)
+		{
+			System.err.println("Handler cost per tick rose beyond the baseline"
+				+ (slower ? ", time " + cost[0] + "ns > " + Math.round(baseline[0] * TIME_TOLERANCE) + "ns" : "")
+				+ (allocates ? ", allocation " + cost[1] + "B > "
+				+ Math.round(baseline[1] * ALLOCATION_TOLERANCE + ALLOCATION_SLACK) + "B" : ""));
+			System.exit(1);
+		}
+		// The panels' Swing event thread would otherwise keep the JVM running
+		System.exit(0);
+	}
+
+	/**
+	 * Checks the final link of every capture a replay made against the recording's expectations.
+	 *
+	 * @return the number of links that differ, are missing or were not expected
+	 */
+	private static int compareLinks(Recording recording, Map<String, String> links)
+	{
+		int changed = 0;
+		TreeSet<String> keys = new TreeSet<>(recording.expected.keySet());
+		keys.addAll(links.keySet());
+		for (String key : keys)
+		{
+			String expected = recording.expected.get(key);
+			String actual = links.get(key);
+			if (expected != null && expected.equals(actual))
+			{
+				continue;
+			}
+
+			changed++;
+			System.err.println(recording.name + ", " + key + ":");
+			System.err.println("  expected " + (expected == null ? "no capture" : expected));
+			System.err.println("  got      " + (actual == null ? "no capture" : actual));
+		}
+		return changed;
+	}
+
+	/**
+	 * The handler time in nanoseconds and allocation in bytes per tick of replaying every recording.
+	 * <p>
+	 * Other threads, the collector and the JIT only ever make a round slower, so the time is the lower quartile of
+	 * the rounds rather than the median, which keeps the gate from tripping on a busy machine. Allocation hardly
+	 * varies and is the median.
+	 */
+	private static long[] measure(List<Recording> recordings) throws Exception
+	{
+		for (int round = 0; round < WARMUP_ROUNDS; round++)
+		{
+			for (Recording recording : recordings)
+			{
+				new Replay(recording).run();
+			}
+		}
+
+		long[] nanos = new long[MEASURED_ROUNDS];
+		long[] bytes = new long[MEASURED_ROUNDS];
+		for (int round = 0; round < MEASURED_ROUNDS; round++)
+		{
+			long totalNanos = 0;
+			long totalBytes = 0;
+			long ticks = 0;
+			for (Recording recording : recordings)
+			{
+				Replay replay = new Replay(recording);
+				replay.run();
+				totalNanos += replay.nanos;
+				totalBytes += replay.bytes;
+				ticks += replay.ticks;
+			}
+			nanos[round] = totalNanos / ticks;
+			bytes[round] = totalBytes / ticks;
+		}
+		Arrays.sort(nanos);
+		Arrays.sort(bytes);
+		return new long[]{nanos[MEASURED_ROUNDS / 4], bytes[MEASURED_ROUNDS / 2]};
+	}
+
+	private static String describe(long[] cost)
+	{
+		return String.format("%.1fus and %d bytes", cost[0] / 1000.0, cost[1]);
+	}
+
+	private static long[] readBaseline(Path file) throws IOException
+	{
+		Properties properties = new Properties();
+		try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+		{
+			properties.load(reader);
+		}
+		return new long[]{
+			Long.parseLong(properties.getProperty("nanosPerTick")),
+			Long.parseLong(properties.getProperty("bytesPerTick"))
+		};
+	}
+
+	private static void writeBaseline(Path file, long[] cost) throws IOException
+	{
+		int cores = Runtime.getRuntime().availableProcessors();
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Files.write(file, Arrays.asList(
+			"# Handler cost per tick of replaying the corpus, recorded with ./gradlew replayCorpus -PupdateBaseline",
+			"# on " + System.getProperty("os.name") + " " + System.getProperty("os.arch") + ", " + cores
+				+ (cores == 1 ? " core" : " cores") + ", Java " + System.getProperty("java.version") + ".",
+			"nanosPerTick=" + cost[0],
+			"bytesPerTick=" + cost[1]
+		), StandardCharsets.UTF_8);
+	}
+
+	static List<Recording> load(Path corpus) throws IOException
+	{
+		List<Path> files;
+		try (Stream<Path> list = Files.list(corpus))
+		{
+			files = list.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+
+		List<Recording> recordings = new ArrayList<>();
+		for (Path file : files)
+		{
+			recordings.add(Recording.parse(file));
+		}
+		return recordings;
+	}
+
+	private static final class Step
+	{
+		private final String command;
+		private final int[] values;
+		private final String text;
+
+		Step(String command, int[] values, String text)
+		{
+			this.command = command;
+			this.values = values;
+			this.text = text;
+		}
+	}
+
+	static final class Recording
+	{
+		final String name;
+		private final List<Step> steps = new ArrayList<>();
+		// Final link of each capture, keyed like Replay#links
+		final Map<String, String> expected = new TreeMap<>();
+
+		private Recording(String name)
+		{
+			this.name = name;
+		}
+
+		static Recording parse(Path file) throws IOException
+		{
+			Recording recording = new Recording(file.getFileName().toString());
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			for (int i = 0; i < lines.size(); i++)
+			{
+				String line = lines.get(i);
+				int comment = line.indexOf('#');
+				if (comment >= 0 && !line.trim().startsWith("expect"))
+				{
+					line = line.substring(0, comment);
+				}
+				line = line.trim();
+				if (line.isEmpty())
+				{
+					continue;
+				}
+
+				try
+				{
+					recording.add(line.split("\\s+"), line);
+				}
+				catch (RuntimeException e)
+				{
+					throw new IllegalArgumentException(file + ":" + (i + 1) + ": " + e.getMessage(), e);
+				}
+			}
+			return recording;
+		}
+
+		private void add(String[] tokens, String line)
+		{
+			String command = tokens[0];
+			switch (command)
+			{
+				case "tick":
+					expectTokens(tokens, 1, 2);
+					steps.add(new Step(command, new int[]{tokens.length > 1 ? Integer.parseInt(tokens[1]) : 1}, null));
+					break;
+				case "player":
+				case "move":
+					expectTokens(tokens, command.equals("player") ? 3 : 4, command.equals("player") ? 3 : 4);
+					steps.add(new Step(command, ints(tokens, 1, null), null));
+					break;
+				case "chat":
+					steps.add(new Step(command, null, line.substring(command.length()).trim()));
+					break;
+				case "spawn":
+					expectTokens(tokens, 5, 5);
+					steps.add(new Step(command, new int[]{
+						Integer.parseInt(tokens[1]),
+						resolve(NpcID.class, tokens[2]),
+						Integer.parseInt(tokens[3]),
+						Integer.parseInt(tokens[4])
+					}, null));
+					break;
+				case "despawn":
+					expectTokens(tokens, 2, 2);
+					steps.add(new Step(command, ints(tokens, 1, null), null));
+					break;
+				case "spotanims":
+					expectTokens(tokens, 2, Integer.MAX_VALUE);
+					int[] values = ints(tokens, 2, SpotanimID.class);
+					int[] withIndex = new int[values.length + 1];
+					withIndex[0] = Integer.parseInt(tokens[1]);
+					System.arraycopy(values, 0, withIndex, 1, values.length);
+					steps.add(new Step(command, withIndex, null));
+					break;
+				case "varbit":
+					expectTokens(tokens, 3, 3);
+					steps.add(new Step(command, new int[]{resolve(VarbitID.class, tokens[1]), Integer.parseInt(tokens[2])},
+						null));
+					break;
+				case "expect":
+					expectTokens(tokens, 4, 4);
+					if (!tokens[1].equals("spawn") && !tokens[1].equals("reinforcements"))
+					{
+						throw new IllegalArgumentException("expected spawn or reinforcements, got " + tokens[1]);
+					}
+					String key = Replay.key(tokens[1].equals("reinforcements"), Integer.parseInt(tokens[2]));
+					if (expected.put(key, tokens[3]) != null)
+					{
+						throw new IllegalArgumentException("second expectation for " + key);
+					}
+					break;
+				default:
+					throw new IllegalArgumentException("unknown event " + command);
+			}
+		}
+
+		private static void expectTokens(String[] tokens, int min, int max)
+		{
+			if (tokens.length < min || tokens.length > max)
+			{
+				throw new IllegalArgumentException("wrong number of values for " + tokens[0]);
+			}
+		}
+
+		/**
+		 * Parses tokens from {@code from} on as ints, or as the names of constants in {@code constants}.
+		 */
+		private static int[] ints(String[] tokens, int from, Class<?> constants)
+		{
+			int[] values = new int[tokens.length - from];
+			for (int i = 0; i < values.length; i++)
+			{
+				values[i] = constants == null ? Integer.parseInt(tokens[from + i]) : resolve(constants, tokens[from + i]);
+			}
+			return values;
+		}
+
+		/**
+		 * A game value by id or by the name of its constant, so recordings do not depend on ids that change.
+		 */
+		private static int resolve(Class<?> constants, String token)
+		{
+			if (Character.isDigit(token.charAt(0)))
+			{
+				return Integer.parseInt(token);
+			}
+
+			try
+			{
+				return constants.getField(token).getInt(null);
+			}
+			catch (NoSuchFieldException | IllegalAccessException e)
+			{
+				throw new IllegalArgumentException("no " + constants.getSimpleName() + " " + token, e);
+			}
+		}
+	}
+
+	/**
+	 * One replay of a recording through a fresh plugin.
+	 */
+	public static final class Replay
+	{
+		private final Recording recording;
+		private final ReplayWorld world = new ReplayWorld(START_TICK);
+		private final ColosseumWavesPlugin plugin;
+		// Final link of each capture, such as "wave 3 spawn"
+		final Map<String, String> links = new TreeMap<>();
+
+		private long nanos;
+		private long bytes;
+		private int ticks;
+		private long startNanos;
+		private long startBytes;
+
+		Replay(Recording recording)
+		{
+			this.recording = recording;
+			EventBus eventBus = new EventBus();
+			Injector injector = Guice.createInjector(binder ->
+			{
+				binder.bind(Client.class).toInstance(world.getClient());
+				binder.bind(ColosseumWavesConfig.class).toInstance(defaults(ColosseumWavesConfig.class));
+				binder.bind(ScheduledExecutorService.class).toInstance(discardingExecutor());
+				binder.bind(EventBus.class).toInstance(eventBus);
+			});
+			plugin = injector.getInstance(ColosseumWavesPlugin.class);
+			eventBus.register(this);
+		}
+
+		static String key(boolean reinforcements, int wave)
+		{
+			return "wave " + wave + (reinforcements ? " reinforcements" : " spawn");
+		}
+
+		@Subscribe
+		public void onWaveSnapshot(WaveSnapshot snapshot)
+		{
+			links.put(key(snapshot.isReinforcements(), snapshot.getWave()), snapshot.getUrl());
+		}
+
+		void run() throws Exception
+		{
+			plugin.startUp();
+			for (Step step : recording.steps)
+			{
+				apply(step);
+			}
+
+			// Whatever the last tick left queued, before shutting down drops the wave it was queued for
+			begin();
+			plugin.getDeferredWork().drain(Long.MAX_VALUE);
+			end();
+			plugin.shutDown();
+		}
+
+		private void apply(Step step)
+		{
+			int[] values = step.values;
+			switch (step.command)
+			{
+				case "tick":
+					for (int i = 0; i < values[0]; i++)
+					{
+						begin();
+						plugin.onGameTick(GAME_TICK);
+						end();
+						world.advanceTick();
+						ticks++;
+					}
+					break;
+				case "player":
+					world.movePlayer(values[0], values[1]);
+					break;
+				case "chat":
+					ChatMessage message = new ChatMessage(null, ChatMessageType.GAMEMESSAGE, "", step.text, null, 0);
+					begin();
+					plugin.onChatMessage(message);
+					end();
+					break;
+				case "spawn":
+					NpcSpawned spawned = new NpcSpawned(world.spawn(values[0], values[1], values[2], values[3]));
+					begin();
+					plugin.onNpcSpawned(spawned);
+					end();
+					break;
+				case "move":
+					world.move(values[0], values[1], values[2]);
+					break;
+				case "despawn":
+					NpcDespawned despawned = new NpcDespawned(world.despawn(values[0]));
+					begin();
+					plugin.onNpcDespawned(despawned);
+					end();
+					break;
+				case "spotanims":
+					world.setSpotAnims(values[0], Arrays.copyOfRange(values, 1, values.length));
+					break;
+				case "varbit":
+					world.setVarbit(values[0], values[1]);
+					VarbitChanged changed = new VarbitChanged();
+					changed.setVarbitId(values[0]);
+					changed.setValue(values[1]);
+					begin();
+					plugin.onVarbitChanged(changed);
+					end();
+					break;
+				default:
+					throw new IllegalStateException(step.command);
+			}
+		}
+
+		private void begin()
+		{
+			startBytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+			startNanos = System.nanoTime();
+		}
+
+		private void end()
+		{
+			long endNanos = System.nanoTime();
+			nanos += endNanos - startNanos;
+			bytes += THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+		}
+	}
+
+	/**
+	 * A config that returns the default of every item.
+	 */
+	static <T> T defaults(Class<T> type)
+	{
+		return ReplayWorld.proxy(type, (proxy, method, args) ->
+			method.isDefault()
+				? MethodHandles.privateLookupIn(type, MethodHandles.lookup())
+					.unreflectSpecial(method, type)
+					.bindTo(proxy)
+					.invokeWithArguments(args == null ? new Object[0] : args)
+				: ReplayWorld.object(proxy, method, args));
+	}
+
+	/**
+	 * An executor that drops everything handed to it, so history loading, run saving and the like never run.
+	 */
+	private static ScheduledExecutorService discardingExecutor()
+	{
+		return ReplayWorld.proxy(ScheduledExecutorService.class, ReplayWorld::object);
+	}
+}
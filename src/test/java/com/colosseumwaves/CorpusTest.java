@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Every recording of the corpus still ends up with the wave links it expects. Costs are left to
+ * {@code ./gradlew replayCorpus}, see {@link CorpusReplay}.
+ */
+public class CorpusTest
+{
+	// The expected links were made with stand-ins for the client classes, not RuneLite itself
+	@Ignore("Enable once the corpus expectations are regenerated against the RuneLite client")
+	@Test
+	public void wavesKeepTheirLinks() throws Exception
+	{
+		Path corpus = Paths.get(CorpusTest.class.getResource("corpus").toURI());
+		List<CorpusReplay.Recording> recordings = CorpusReplay.load(corpus);
+		assertFalse(recordings.isEmpty());
+		for (CorpusReplay.Recording recording : recordings)
+		{
+			CorpusReplay.Replay replay = new CorpusReplay.Replay(recording);
+			replay.run();
+			assertEquals(recording.name, recording.expected, replay.links);
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LiveStateFileTest
+{
+	private static final int TICKS = 200_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void readsPublishedTick() throws Exception
+	{
+		Path path = folder.getRoot().toPath().resolve(LiveStateFile.FILE_NAME);
+		LiveStateFile file = new LiveStateFile(path);
+		file.open();
+		publish(file, 7, new int[LiveStateFileReader.MAX_NPCS], new long[LiveStateFileReader.MAX_NPCS],
+			new int[LiveStateFileReader.MAX_NPCS]);
+
+		try (LiveStateFileReader reader = LiveStateFileReader.open(path))
+		{
+			LiveStateFileReader.Snapshot snapshot = new LiveStateFileReader.Snapshot();
+			assertTrue(reader.read(snapshot));
+			assertEquals(reader.sequence(), snapshot.sequence);
+			assertNull(mismatch(snapshot));
+			assertEquals(7, snapshot.tick);
+			assertEquals(7 + 2, snapshot.npcIndex(2));
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	/**
+	 * One thread publishes tick after tick while another reads, and every snapshot read must come from a single tick.
+	 */
+	@Test
+	public void readsNeverMixTicks() throws Exception
+	{
+		Path path = folder.getRoot().toPath().resolve(LiveStateFile.FILE_NAME);
+		LiveStateFile file = new LiveStateFile(path);
+		file.open();
+
+		AtomicBoolean publishing = new AtomicBoolean(true);
+		Thread publisher = new Thread(() ->
+		{
+			int[] npcIds = new int[LiveStateFileReader.MAX_NPCS];
+			long[] npcIdentities = new long[LiveStateFileReader.MAX_NPCS];
+			int[] codes = new int[LiveStateFileReader.MAX_NPCS];
+			for (int tick = 1; tick <= TICKS; tick++)
+			{
+				publish(file, tick, npcIds, npcIdentities, codes);
+			}
+			publishing.set(false);
+		}, "publisher");
+
+		AtomicReference<String> failure = new AtomicReference<>();
+		int reads = 0;
+		int ticksSeen = 0;
+		try (LiveStateFileReader reader = LiveStateFileReader.open(path))
+		{
+			publisher.start();
+			LiveStateFileReader.Snapshot snapshot = new LiveStateFileReader.Snapshot();
+			long lastSequence = -1;
+			int lastTick = -1;
+			while (publishing.get() && failure.get() == null)
+			{
+				// Tick 0 is the empty state open() writes
+				if (!reader.read(snapshot) || snapshot.tick == 0)
+				{
+					continue;
+				}
+
+				reads++;
+				if ((snapshot.sequence & 1) != 0 || snapshot.sequence < lastSequence || snapshot.tick < lastTick)
+				{
+					failure.set("snapshot out of order at tick " + snapshot.tick);
+				}
+				else
+				{
+					failure.set(mismatch(snapshot));
+				}
+				if (snapshot.tick != lastTick)
+				{
+					ticksSeen++;
+				}
+				lastSequence = snapshot.sequence;
+				lastTick = snapshot.tick;
+			}
+			publisher.join();
+		}
+		finally
+		{
+			file.close();
+		}
+
+		assertNull(failure.get());
+		assertTrue("no snapshot was read", reads > 0);
+		assertTrue("reads never saw the state change", ticksSeen > 1);
+	}
+
+	/**
+	 * Publishes a tick whose every field is derived from the tick, so a snapshot mixing two ticks can be told apart.
+	 */
+	private static void publish(LiveStateFile file, int tick, int[] npcIds, long[] npcIdentities, int[] codes)
+	{
+		int count = tick % (LiveStateFileReader.MAX_NPCS + 1);
+		for (int i = 0; i < count; i++)
+		{
+			npcIds[i] = tick * 64 + i;
+			npcIdentities[i] = identity(tick, i);
+			codes[i] = code(tick, i);
+		}
+		file.publish(1 + tick % RunAnalysis.MAX_WAVE, tick, tick & 0xFFFF, (tick & 1) != 0, tick, npcIds,
+			npcIdentities, codes, count);
+	}
+
+	private static long identity(int tick, int npc)
+	{
+		return NpcIdentities.pack(tick + npc & 0x7FFF, tick);
+	}
+
+	private static int code(int tick, int npc)
+	{
+		int type = 1 + (tick + npc) % 6;
+		int state = type != SpawnCode.MANTICORE ? SpawnCode.NONE
+			: SpawnCode.manticoreState((tick & 2) != 0, 1 + tick % 3, 1 + npc % 3, SpawnCode.ORB_NONE);
+		return SpawnCode.pack((tick + npc) % ArenaMap.SIZE, (tick * 3 + npc) % ArenaMap.SIZE, type, state);
+	}
+
+	/**
+	 * The first field of the snapshot that does not belong to its tick, or null if it is consistent.
+	 */
+	private static String mismatch(LiveStateFileReader.Snapshot snapshot)
+	{
+		int tick = snapshot.tick;
+		if (snapshot.wave != 1 + tick % RunAnalysis.MAX_WAVE || snapshot.player != (tick & 0xFFFF)
+			|| snapshot.flags != ((tick & 1) != 0 ? LiveStateFileReader.FLAG_MANTIMAYHEM3 : 0)
+			|| snapshot.modifiers != tick || snapshot.npcCount != tick % (LiveStateFileReader.MAX_NPCS + 1))
+		{
+			return "header of tick " + tick + " mixed with another tick";
+		}
+
+		for (int i = 0; i < snapshot.npcCount; i++)
+		{
+			int code = code(tick, i);
+			if (snapshot.npcIds[i] != tick * 64 + i || snapshot.npcIdentities[i] != identity(tick, i)
+				|| snapshot.x[i] != SpawnCode.x(code) || snapshot.y[i] != SpawnCode.y(code)
+				|| snapshot.type[i] != SpawnCode.type(code)
+				|| snapshot.uncharged[i] != SpawnCode.isUnchargedAtCapture(code)
+				|| snapshot.orbs[i] != SpawnCode.orbs(code))
+			{
+				return "NPC " + i + " of tick " + tick + " mixed with another tick";
+			}
+		}
+		return null;
+	}
+}
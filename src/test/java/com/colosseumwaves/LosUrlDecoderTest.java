@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LosUrlDecoderTest
+{
+	private final LosUrlDecoder decoder = new LosUrlDecoder();
+
+	@Test
+	public void roundTripsRandomLinks()
+	{
+		Random random = new Random(31);
+		for (int i = 0; i < 10_000; i++)
+		{
+			// Past the decoder's initial buffer now and then
+			int[] codes = TestRuns.codes(random, 1 + random.nextInt(i % 100 == 0 ? 40 : 8));
+			int player = TestRuns.player(random);
+			boolean waveSpawn = random.nextBoolean();
+			boolean mantimayhem3 = random.nextBoolean();
+			String url = LosUrls.build(codes, player, waveSpawn, mantimayhem3);
+
+			assertTrue(url, decoder.decode(url, 0, url.length()));
+			assertArrayEquals(url, codes, decoder.copyCodes());
+			assertEquals(url, player, decoder.getPlayer());
+			assertEquals(url, waveSpawn, decoder.isWaveSpawn());
+			assertEquals(url, mantimayhem3, decoder.isMantimayhem3());
+		}
+	}
+
+	@Test
+	public void decodesManticoreSuffixes()
+	{
+		String url = "https://los.colosim.com/?15034urMm.24044M.06044u.30184.01183.#5650_ws_mm3";
+		assertTrue(decoder.decode(url, 0, url.length()));
+		assertEquals(5, decoder.getCount());
+		assertEquals(SpawnCode.pack(15, 3, SpawnCode.MANTICORE,
+				SpawnCode.manticoreState(true, SpawnCode.ORB_RANGED, SpawnCode.ORB_MELEE, SpawnCode.ORB_MAGIC)),
+			decoder.getCode(0));
+		assertEquals(SpawnCode.pack(24, 4, SpawnCode.MANTICORE,
+				SpawnCode.manticoreState(false, SpawnCode.ORB_MELEE, SpawnCode.ORB_NONE, SpawnCode.ORB_NONE)),
+			decoder.getCode(1));
+		assertEquals(SpawnCode.pack(6, 4, SpawnCode.MANTICORE,
+				SpawnCode.manticoreState(true, SpawnCode.ORB_NONE, SpawnCode.ORB_NONE, SpawnCode.ORB_NONE)),
+			decoder.getCode(2));
+		assertEquals(SpawnCode.pack(30, 18, SpawnCode.MANTICORE, SpawnCode.NONE), decoder.getCode(3));
+		assertEquals(SpawnCode.pack(1, 18, 3, SpawnCode.NONE), decoder.getCode(4));
+		assertEquals(LosUrls.encodePlayer(18, 22), decoder.getPlayer());
+		assertTrue(decoder.isWaveSpawn());
+		assertTrue(decoder.isMantimayhem3());
+		assertEquals(url, LosUrls.build(decoder.copyCodes(), decoder.getPlayer(), true, true));
+	}
+
+	@Test
+	public void decodesLinkInsideText()
+	{
+		String url = LosUrls.build(new int[]{SpawnCode.pack(4, 4, 1, SpawnCode.NONE)}, LosUrls.NO_PLAYER, true, false);
+		String text = "wave 1 " + url + " done";
+		int start = text.indexOf("https");
+		assertTrue(decoder.decode(text, start, start + url.length()));
+		assertEquals(1, decoder.getCount());
+		assertEquals(LosUrls.NO_PLAYER, decoder.getPlayer());
+		assertTrue(decoder.isWaveSpawn());
+		assertFalse(decoder.isMantimayhem3());
+	}
+
+	@Test
+	public void rejectsMalformedLinks()
+	{
+		assertInvalid("https://los.colosim.com/?0404");
+		assertInvalid("https://los.colosim.com/?04047.");
+		assertInvalid("https://los.colosim.com/?0x041.");
+		assertInvalid("https://los.colosim.com/?04041.#");
+		assertInvalid("https://los.colosim.com/?04041.#12_xx");
+		// More than three orbs
+		assertInvalid("https://los.colosim.com/?15034mrMm.");
+		// Orb states on NPCs other than manticores
+		assertInvalid("https://los.colosim.com/?15031u.");
+		assertInvalid("https://los.colosim.com/?04046r.15034u.");
+	}
+
+	private void assertInvalid(String url)
+	{
+		assertFalse(url, decoder.decode(url, 0, url.length()));
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import java.util.Random;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.gameval.NpcID;
+import net.runelite.api.gameval.SpotanimID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Manticores replacing each other on the same NPC index without {@link ManticoreHandler#clear()} in between, as
+ * when the game hands a dead manticore's index to a reinforcement.
+ */
+public class ManticoreHandlerTest
+{
+	private static final int INDEX = 5;
+	private static final int[] ORB_SPOT_ANIMS = {
+		0,
+		SpotanimID.VFX_MANTICORE_01_PROJECTILE_MAGIC_01,
+		SpotanimID.VFX_MANTICORE_01_PROJECTILE_RANGED_01,
+		SpotanimID.VFX_MANTICORE_01_PROJECTILE_MELEE_01,
+	};
+	private static final String ORB_CODES = " mrM";
+
+	private ReplayWorld world;
+	private NpcIdentities identities;
+	private ManticoreHandler handler;
+
+	@Before
+	public void setUp()
+	{
+		world = new ReplayWorld(100);
+		Injector injector = Guice.createInjector(binder -> binder.bind(Client.class).toInstance(world.getClient()));
+		identities = injector.getInstance(NpcIdentities.class);
+		handler = injector.getInstance(ManticoreHandler.class);
+	}
+
+	@Test
+	public void reusedIndexStartsUncharged()
+	{
+		long first = spawn(false);
+		showOrbs(SpawnCode.ORB_RANGED, SpawnCode.ORB_MAGIC, SpawnCode.ORB_MELEE);
+		assertTrue(handler.hasCompletePattern(first));
+		assertEquals("r", handler.getManticoreLosSuffix(first));
+		assertEquals(first, scheduledNpc());
+
+		world.despawn(INDEX);
+		long second = spawn(false);
+		assertFalse(identities.isCurrent(first));
+		assertFalse(handler.hasCompletePattern(second));
+		assertEquals("u", handler.getManticoreLosSuffix(second));
+		assertEquals("u", handler.getManticoreSpawnLosSuffix(second, true));
+
+		// The first manticore's predicted attacks stop once it is no longer in the arena
+		tick();
+		assertEquals(-1, scheduledNpc());
+
+		showOrbs(SpawnCode.ORB_MELEE, SpawnCode.ORB_MAGIC, SpawnCode.ORB_RANGED);
+		assertEquals("M", handler.getManticoreLosSuffix(second));
+		assertEquals(second, scheduledNpc());
+	}
+
+	/**
+	 * The same through {@link ManticoreHandler#ensureManticoreTracked(NPC)}, which only adds a manticore it does not
+	 * know yet and so would hand the new one the old pattern if it were keyed on the index alone.
+	 */
+	@Test
+	public void ensureTrackedOnReusedIndexStartsUncharged()
+	{
+		long first = spawn(true);
+		showOrbs(SpawnCode.ORB_MAGIC, SpawnCode.ORB_RANGED, SpawnCode.ORB_MELEE);
+		assertEquals("m", handler.getManticoreLosSuffix(first));
+
+		world.despawn(INDEX);
+		long second = spawn(true);
+		assertEquals("u", handler.getManticoreLosSuffix(second));
+		showOrbs(SpawnCode.ORB_RANGED);
+		assertEquals("r", handler.getManticoreLosSuffix(second));
+		assertEquals("m", handler.getManticoreLosSuffix(first));
+	}
+
+	/**
+	 * Many manticores in a row on a few indices, each showing some or all of its orbs, with Mantimayhem III on so
+	 * the whole pattern shows in the suffix. Each must only ever report its own orbs.
+	 */
+	@Test
+	public void randomReuseNeverLeaksOrbs()
+	{
+		handler.setMantimayhem3Active(true);
+		Random random = new Random(1);
+		boolean[] spawned = new boolean[3];
+		for (int round = 0; round < 500; round++)
+		{
+			int index = random.nextInt(3);
+			if (spawned[index])
+			{
+				world.despawn(index);
+			}
+			spawned[index] = true;
+			NPC npc = world.spawn(index, NpcID.COLOSSEUM_MANTICORE, 10, 10);
+			identities.spawned(index);
+			if (random.nextBoolean())
+			{
+				handler.onNpcSpawned(npc);
+			}
+			else
+			{
+				handler.ensureManticoreTracked(npc);
+			}
+			long identity = identities.current(index);
+
+			int[] orbs = {SpawnCode.ORB_MAGIC, SpawnCode.ORB_RANGED, SpawnCode.ORB_MELEE};
+			shuffle(random, orbs);
+			int shown = random.nextInt(4);
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < shown; i++)
+			{
+				world.setSpotAnims(index, new int[]{ORB_SPOT_ANIMS[orbs[i]]});
+				handler.checkNPCGraphics(npc);
+				tick();
+				expected.append(ORB_CODES.charAt(orbs[i]));
+			}
+
+			String suffix = handler.getManticoreLosSuffix(identity);
+			if (shown == 0)
+			{
+				assertEquals("u", suffix);
+			}
+			else if (shown < 3 || orbs[2] == SpawnCode.ORB_MELEE)
+			{
+				assertEquals(expected.substring(0, 1), suffix);
+			}
+			else
+			{
+				assertEquals(expected.toString(), suffix);
+			}
+		}
+	}
+
+	private long spawn(boolean ensureTracked)
+	{
+		NPC npc = world.spawn(INDEX, NpcID.COLOSSEUM_MANTICORE, 10, 10);
+		long identity = identities.spawned(INDEX);
+		if (ensureTracked)
+		{
+			handler.ensureManticoreTracked(npc);
+		}
+		else
+		{
+			handler.onNpcSpawned(npc);
+		}
+		return identity;
+	}
+
+	/**
+	 * Shows the manticore on {@link #INDEX} its orbs one tick apart.
+	 */
+	private void showOrbs(int... orbs)
+	{
+		for (int orb : orbs)
+		{
+			world.setSpotAnims(INDEX, new int[]{ORB_SPOT_ANIMS[orb]});
+			tick();
+		}
+		world.setSpotAnims(INDEX, new int[0]);
+		tick();
+	}
+
+	private void tick()
+	{
+		world.advanceTick();
+		handler.checkAllManticores();
+	}
+
+	/**
+	 * The identity of the only manticore with predicted attacks, or -1 if there is none.
+	 */
+	private long scheduledNpc()
+	{
+		ManticoreScheduler scheduler = handler.getScheduler();
+		long identity = -1;
+		for (int slot = 0; slot < ManticoreScheduler.MAX_MANTICORES; slot++)
+		{
+			if (scheduler.isActive(slot))
+			{
+				assertEquals(-1, identity);
+				identity = scheduler.identity(slot);
+			}
+		}
+		return identity;
+	}
+
+	private static void shuffle(Random random, int[] values)
+	{
+		for (int i = values.length - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int value = values[i];
+			values[i] = values[j];
+			values[j] = value;
+		}
+	}
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.api.ActorSpotAnim;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.WorldView;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * The parts of the client a {@link CorpusReplay} drives, stood in for by proxies: a top level world view over the
+ * Colosseum, the local player, the NPCs in it with their spot anims, varbits and the tick count.
+ * <p>
+ * Locations are given in LoS coordinates and turned back into world points the way the plugin turns scene
+ * locations into LoS coordinates, so a recording reads the same as the links it produces. Every int a proxy returns
+ * is boxed once when it changes rather than on every call, so the stubs add as little as possible to the handler
+ * cost a replay measures. Any method not stubbed returns null, zero or false.
+ */
+final class ReplayWorld
+{
+	private static final int COLOSSEUM_REGION_ID = 7216;
+	private static final int BASE_X = 1760;
+	private static final int BASE_Y = 3040;
+	private static final int SCENE_SIZE = 104;
+	private static final int LOS_COORD_OFFSET_X = 32;
+	private static final int LOS_COORD_OFFSET_Y = 83;
+	// Boxed once, see the class comment
+	private static final Integer BOXED_BASE_X = BASE_X;
+	private static final Integer BOXED_BASE_Y = BASE_Y;
+	private static final Integer BOXED_SCENE_SIZE = SCENE_SIZE;
+	private static final Integer TOP_LEVEL_ID = -1;
+	private static final int[] MAP_REGIONS = {COLOSSEUM_REGION_ID};
+
+	private final Client client = proxy(Client.class, this::client);
+	private final WorldView worldView = proxy(WorldView.class, this::worldView);
+	private final Player player = proxy(Player.class, this::player);
+
+	// In spawn order, which is the order the client iterates them in
+	private final Map<Integer, ReplayNpc> npcs = new LinkedHashMap<>();
+	private final Collection<NPC> npcProxies = new ArrayList<>();
+	private Object npcSet;
+	private final Map<Integer, Integer> varbits = new HashMap<>();
+
+	private Integer tickCount;
+	private WorldPoint playerLocation;
+
+	ReplayWorld(int startTick)
+	{
+		tickCount = startTick;
+		playerLocation = toWorld(0, 0);
+	}
+
+	Client getClient()
+	{
+		return client;
+	}
+
+	int getTickCount()
+	{
+		return tickCount;
+	}
+
+	void advanceTick()
+	{
+		tickCount = tickCount + 1;
+	}
+
+	void movePlayer(int losX, int losY)
+	{
+		playerLocation = toWorld(losX, losY);
+	}
+
+	void setVarbit(int varbit, int value)
+	{
+		varbits.put(varbit, value);
+	}
+
+	NPC spawn(int index, int id, int losX, int losY)
+	{
+		ReplayNpc npc = new ReplayNpc(index, id, toWorld(losX, losY));
+		npcs.put(index, npc);
+		npcProxies.add(npc.proxy);
+		return npc.proxy;
+	}
+
+	NPC despawn(int index)
+	{
+		ReplayNpc npc = require(index);
+		npcs.remove(index);
+		npcProxies.remove(npc.proxy);
+		return npc.proxy;
+	}
+
+	void move(int index, int losX, int losY)
+	{
+		require(index).location = toWorld(losX, losY);
+	}
+
+	void setSpotAnims(int index, int[] spotAnims)
+	{
+		ReplayNpc npc = require(index);
+		npc.spotAnims.clear();
+		for (int id : spotAnims)
+		{
+			Integer boxed = id;
+			npc.spotAnims.add(proxy(ActorSpotAnim.class, (p, method, args) ->
+				"getId".equals(method.getName()) ? boxed : object(p, method, args)));
+		}
+	}
+
+	private ReplayNpc require(int index)
+	{
+		ReplayNpc npc = npcs.get(index);
+		if (npc == null)
+		{
+			throw new IllegalStateException("No NPC on index " + index);
+		}
+		return npc;
+	}
+
+	private static WorldPoint toWorld(int losX, int losY)
+	{
+		return new WorldPoint(BASE_X + losX + LOS_COORD_OFFSET_X, BASE_Y + LOS_COORD_OFFSET_Y - losY, 0);
+	}
+
+	private Object client(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "getTickCount":
+				return tickCount;
+			case "getLocalPlayer":
+				return player;
+			case "getTopLevelWorldView":
+				return worldView;
+			case "getVarbitValue":
+				return varbits.getOrDefault((Integer) args[0], 0);
+			case "getGameState":
+				return GameState.LOGGED_IN;
+			case "isClientThread":
+				return true;
+			default:
+				return object(proxy, method, args);
+		}
+	}
+
+	private Object worldView(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "getMapRegions":
+				return MAP_REGIONS;
+			case "npcs":
+				if (npcSet == null)
+				{
+					npcSet = iterable(method.getReturnType(), npcProxies, index ->
+					{
+						ReplayNpc npc = npcs.get(index);
+						return npc == null ? null : npc.proxy;
+					});
+				}
+				return npcSet;
+			case "getBaseX":
+				return BOXED_BASE_X;
+			case "getBaseY":
+				return BOXED_BASE_Y;
+			case "getSizeX":
+			case "getSizeY":
+				return BOXED_SCENE_SIZE;
+			case "getId":
+				return TOP_LEVEL_ID;
+			case "isTopLevel":
+				return true;
+			default:
+				return object(proxy, method, args);
+		}
+	}
+
+	private Object player(Object proxy, Method method, Object[] args)
+	{
+		if ("getWorldLocation".equals(method.getName()))
+		{
+			return playerLocation;
+		}
+		return object(proxy, method, args);
+	}
+
+	private static final class ReplayNpc
+	{
+		private final Integer index;
+		private final Integer id;
+		private WorldPoint location;
+		private final List<ActorSpotAnim> spotAnims = new ArrayList<>();
+		private final Object spotAnimTable;
+		private final NPC proxy;
+
+		ReplayNpc(int index, int id, WorldPoint location)
+		{
+			this.index = index;
+			this.id = id;
+			this.location = location;
+			this.proxy = proxy(NPC.class, this::npc);
+			Class<?> tableType;
+			try
+			{
+				tableType = NPC.class.getMethod("getSpotAnims").getReturnType();
+			}
+			catch (NoSuchMethodException e)
+			{
+				throw new IllegalStateException(e);
+			}
+			this.spotAnimTable = iterable(tableType, spotAnims, i -> null);
+		}
+
+		private Object npc(Object proxy, Method method, Object[] args)
+		{
+			switch (method.getName())
+			{
+				case "getIndex":
+					return index;
+				case "getId":
+					return id;
+				case "getWorldLocation":
+					return location;
+				case "getSpotAnims":
+					return spotAnimTable;
+				default:
+					return object(proxy, method, args);
+			}
+		}
+	}
+
+	private interface ByIndex
+	{
+		Object get(int index);
+	}
+
+	/**
+	 * A proxy of an iterable client collection type, such as the NPC set of a world view or the spot anim table of
+	 * an actor, over {@code items}.
+	 */
+	private static Object iterable(Class<?> type, Collection<?> items, ByIndex byIndex)
+	{
+		return proxy(type, (proxy, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "iterator":
+					return items.iterator();
+				case "byIndex":
+					return byIndex.get((Integer) args[0]);
+				default:
+					return object(proxy, method, args);
+			}
+		});
+	}
+
+	static <T> T proxy(Class<T> type, InvocationHandler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+	}
+
+	/**
+	 * The {@link Object} methods of a proxy, and the null, zero or false every other method that is not stubbed
+	 * returns.
+	 */
+	static Object object(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return method.getDeclaringClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+			default:
+				return zero(method.getReturnType());
+		}
+	}
+
+	private static Object zero(Class<?> type)
+	{
+		if (!type.isPrimitive() || type == void.class)
+		{
+			return null;
+		}
+		if (type == boolean.class)
+		{
+			return false;
+		}
+		if (type == char.class)
+		{
+			return (char) 0;
+		}
+		if (type == long.class)
+		{
+			return 0L;
+		}
+		if (type == float.class)
+		{
+			return 0f;
+		}
+		if (type == double.class)
+		{
+			return 0d;
+		}
+		if (type == int.class)
+		{
+			return 0;
+		}
+		return type == short.class ? (Object) (short) 0 : (Object) (byte) 0;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class RunAnalysisTest
+{
+	@Test
+	public void parallelAnalysisMatchesSingleThreaded()
+	{
+		// Enough runs to split into many chunks
+		List<RunRecord> runs = TestRuns.generate(20_000, 1);
+		RunAnalysis single = RunAnalysis.analyze(runs, 1);
+		RunAnalysis parallel = RunAnalysis.analyze(runs, 4);
+
+		assertEquals(runs.size(), parallel.getRunCount());
+		assertEquals(single.getWaveCount(), parallel.getWaveCount());
+		for (int wave = 1; wave <= RunAnalysis.MAX_WAVE; wave++)
+		{
+			assertEquals(single.getCompositions(wave), parallel.getCompositions(wave));
+			assertArrayEquals(single.getReinforcementTicks(wave), parallel.getReinforcementTicks(wave));
+			assertArrayEquals(single.getDurations(wave), parallel.getDurations(wave));
+		}
+		assertArrayEquals(single.getOrbOrders(false), parallel.getOrbOrders(false));
+		assertArrayEquals(single.getOrbOrders(true), parallel.getOrbOrders(true));
+		assertEquals(single.describe(), parallel.describe());
+	}
+
+	@Test
+	public void aggregatesWaves()
+	{
+		int shaman = SpawnCode.pack(4, 4, 1, SpawnCode.NONE);
+		int javelin = SpawnCode.pack(15, 1, 2, SpawnCode.NONE);
+		int manticore = SpawnCode.pack(15, 3, SpawnCode.MANTICORE,
+			SpawnCode.manticoreState(true, SpawnCode.ORB_RANGED, SpawnCode.ORB_MAGIC, SpawnCode.ORB_MELEE));
+		List<RunRecord> runs = Arrays.asList(
+			run(new WaveRecord(1, new int[]{shaman, javelin}, new int[0], LosUrls.NO_PLAYER, LosUrls.NO_PLAYER, 12,
+				false, 0, 40, new int[]{10, 20})),
+			run(new WaveRecord(1, new int[]{javelin, shaman}, new int[0], LosUrls.NO_PLAYER, LosUrls.NO_PLAYER, 12,
+				false, 0, 0, null)),
+			run(new WaveRecord(7, new int[]{manticore}, new int[0], LosUrls.NO_PLAYER, LosUrls.NO_PLAYER, -1,
+				true, 3, 0, null)),
+			// Outside the waves the analysis covers
+			run(new WaveRecord(0, new int[]{shaman}, new int[0], LosUrls.NO_PLAYER, LosUrls.NO_PLAYER, 5,
+				false, 0, 0, null)));
+
+		RunAnalysis analysis = RunAnalysis.analyze(runs, 2);
+		assertEquals(4, analysis.getRunCount());
+		assertEquals(3, analysis.getWaveCount());
+		// Spawn order does not change the composition
+		assertEquals(Collections.singletonMap(RunAnalysis.compositionKey(1, new int[]{shaman, javelin}), 2),
+			analysis.getCompositions(1));
+		assertEquals(2, analysis.getReinforcementTicks(1)[12]);
+		assertEquals(1, analysis.getDurations(1)[40]);
+		assertEquals(1.0, analysis.getMeanKillPosition(1, 1), 0);
+		assertEquals(2.0, analysis.getMeanKillPosition(1, 2), 0);
+		assertEquals(1, analysis.getOrbOrders(true)[SpawnCode.orbs(manticore)]);
+		assertEquals(0, Arrays.stream(analysis.getOrbOrders(false)).sum());
+	}
+
+	private static RunRecord run(WaveRecord wave)
+	{
+		return new RunRecord(0, Collections.singletonList(wave), false);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.gson.Gson;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RunHistoryTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Lowering the limit drops the least recently used runs at once, not only when the next run is added.
+	 */
+	@Test
+	public void lowerLimitTrimsAtOnce() throws Exception
+	{
+		RunStore store = new RunStore(new Gson(), folder.getRoot());
+		RunHistory history = new RunHistory(store, CorpusReplay.defaults(ColosseumWavesConfig.class));
+		history.load();
+		List<RunRecord> runs = TestRuns.generate(5, 1);
+		for (RunRecord run : runs)
+		{
+			history.add(run);
+		}
+		assertEquals(runs.size(), history.size());
+		for (int i = 0; i < runs.size(); i++)
+		{
+			assertSame(runs.get(i), history.get(i));
+		}
+
+		history.setHotRunLimit(2);
+		for (int i = 0; i < 3; i++)
+		{
+			RunRecord run = history.get(i);
+			assertNotSame(runs.get(i), run);
+			assertEquals(runs.get(i), run);
+		}
+	}
+}
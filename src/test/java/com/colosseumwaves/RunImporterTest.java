@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RunImporterTest
+{
+	private static final long IMPORT_TIME = 1_700_000_000_000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void groupsChatLogIntoRuns() throws IOException
+	{
+		List<RunRecord> runs = new ArrayList<>();
+		int links = RunImporter.importLinks(reader(
+			// No wave number before it
+			"https://los.colosim.com/?15034ur._mm3",
+			"[12:00] Wave: 1",
+			"[12:00] https://los.colosim.com/?04041.29041.#7697_ws",
+			"[12:01] reinforcements https://los.colosim.com/?15012.28061.#6160",
+			"[12:01] Wave 1 completed! Wave duration: 0:30",
+			"[12:01] Wave: 2",
+			"[12:01] https://los.colosim.com/?06022.26022.17051.#6160_ws",
+			// A new run starts back at wave 1
+			"[12:30] Wave: 1 https://los.colosim.com/?04041.#7697_ws"
+		), IMPORT_TIME, runs::addAll);
+
+		assertEquals(5, links);
+		assertEquals(3, runs.size());
+		for (RunRecord run : runs)
+		{
+			assertTrue(run.isImported());
+		}
+
+		WaveRecord unnumbered = runs.get(0).getWaves().get(0);
+		assertEquals(IMPORT_TIME, runs.get(0).getStartTime());
+		assertEquals(0, unnumbered.getWave());
+		assertTrue(unnumbered.isMantimayhem3());
+		assertEquals(3, ColosseumModifiers.level(unnumbered.getModifiers(), ColosseumModifiers.Modifier.MANTIMAYHEM));
+
+		RunRecord first = runs.get(1);
+		assertEquals(IMPORT_TIME + 1, first.getStartTime());
+		assertEquals(2, first.getWaves().size());
+		WaveRecord wave1 = first.getWaves().get(0);
+		assertEquals(1, wave1.getWave());
+		assertEquals(2, wave1.getSpawns().length);
+		assertEquals(2, wave1.getReinforcements().length);
+		assertEquals(7697, wave1.getPlayerAtSpawn());
+		assertEquals(6160, wave1.getPlayerAtReinforcements());
+		assertEquals(2, first.getWaves().get(1).getWave());
+
+		assertEquals(IMPORT_TIME + 2, runs.get(2).getStartTime());
+		assertEquals(1, runs.get(2).getWaves().get(0).getWave());
+	}
+
+	@Test
+	public void importsExportedRuns() throws IOException
+	{
+		List<RunRecord> exported = TestRuns.generate(500, 2);
+		Path file = folder.newFile("links.csv").toPath();
+		new LinkExporter(true, true).export(consumer -> exported.forEach(consumer), file, 2);
+
+		List<RunRecord> imported = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+		{
+			RunImporter.importLinks(reader, IMPORT_TIME, imported::addAll);
+		}
+
+		assertEquals(exported.size(), imported.size());
+		for (int i = 0; i < exported.size(); i++)
+		{
+			RunRecord expected = exported.get(i);
+			RunRecord actual = imported.get(i);
+			assertEquals(expected.getStartTime(), actual.getStartTime());
+			assertTrue(actual.isImported());
+			assertEquals(expected.getWaves().size(), actual.getWaves().size());
+			for (int j = 0; j < expected.getWaves().size(); j++)
+			{
+				WaveRecord expectedWave = expected.getWaves().get(j);
+				WaveRecord actualWave = actual.getWaves().get(j);
+				assertEquals(expectedWave.getWave(), actualWave.getWave());
+				assertArrayEquals(expectedWave.getSpawns(), actualWave.getSpawns());
+				assertArrayEquals(expectedWave.getReinforcements(), actualWave.getReinforcements());
+				assertEquals(expectedWave.getPlayerAtSpawn(), actualWave.getPlayerAtSpawn());
+				if (expectedWave.hasReinforcements())
+				{
+					assertEquals(expectedWave.getPlayerAtReinforcements(), actualWave.getPlayerAtReinforcements());
+				}
+				assertEquals(expectedWave.isMantimayhem3(), actualWave.isMantimayhem3());
+			}
+		}
+	}
+
+	private static BufferedReader reader(String... lines)
+	{
+		return new BufferedReader(new StringReader(String.join("\n", lines)));
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Several client processes appending to one run file while another tails it, as when multiple clients on a machine
+ * share the store.
+ */
+public class RunStoreStressTest
+{
+	private static final int WRITERS = 4;
+	private static final int RUNS_PER_WRITER = 400;
+	// Runs a writer saves with one appendAll, the rest are saved one at a time
+	private static final int BATCH = 8;
+	private static final long WRITER_STRIDE = 1_000_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void tailReadsEveryRunOnce() throws Exception
+	{
+		File dir = folder.newFolder("store");
+		List<Process> writers = new ArrayList<>();
+		for (int writer = 0; writer < WRITERS; writer++)
+		{
+			writers.add(new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+				"-cp", System.getProperty("java.class.path"), Writer.class.getName(), dir.getPath(),
+				String.valueOf(writer), String.valueOf(RUNS_PER_WRITER))
+				.redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.INHERIT)
+				.start());
+		}
+
+		RunStore store = new RunStore(new Gson(), dir);
+		Map<Long, RunRecord> runs = new HashMap<>();
+		List<Long> offsets = new ArrayList<>();
+		long offset = 0;
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+		boolean writing = true;
+		while (writing)
+		{
+			writing = false;
+			for (Process writer : writers)
+			{
+				writing |= writer.isAlive();
+			}
+			if (System.nanoTime() > deadline)
+			{
+				writers.forEach(Process::destroyForcibly);
+				fail("writers did not finish");
+			}
+
+			// One last pass once every writer has exited
+			offset = store.tail(offset, offsets::add, run ->
+			{
+				if (runs.put(run.getStartTime(), run) != null)
+				{
+					fail("run read twice: " + run.getStartTime());
+				}
+			});
+		}
+
+		for (Process writer : writers)
+		{
+			assertEquals("writer exit code", 0, writer.exitValue());
+		}
+		assertEquals(store.runFileLength(), offset);
+		assertEquals(WRITERS * RUNS_PER_WRITER, offsets.size());
+		assertEquals(WRITERS * RUNS_PER_WRITER, runs.size());
+		for (int writer = 0; writer < WRITERS; writer++)
+		{
+			for (int i = 0; i < RUNS_PER_WRITER; i++)
+			{
+				assertEquals(run(writer, i), runs.get(startTime(writer, i)));
+			}
+		}
+
+		for (int i = 1; i < offsets.size(); i++)
+		{
+			assertTrue("offsets out of order", offsets.get(i) > offsets.get(i - 1));
+		}
+		// Offsets read by the tail point at whole runs
+		Random random = new Random(34);
+		for (int i = 0; i < 50; i++)
+		{
+			RunRecord run = store.readAt(offsets.get(random.nextInt(offsets.size())));
+			assertNotNull(run);
+			assertEquals(run, runs.get(run.getStartTime()));
+		}
+	}
+
+	private static long startTime(int writer, int index)
+	{
+		return writer * WRITER_STRIDE + index;
+	}
+
+	/**
+	 * The run a writer saves at {@code index}, generated the same way in the writer and the test.
+	 */
+	private static RunRecord run(int writer, int index)
+	{
+		return TestRuns.run(new Random(startTime(writer, index)), startTime(writer, index));
+	}
+
+	/**
+	 * A client process saving runs: {@code Writer <store dir> <writer> <runs>}.
+	 */
+	public static final class Writer
+	{
+		public static void main(String[] args)
+		{
+			RunStore store = new RunStore(new Gson(), new File(args[0]));
+			int writer = Integer.parseInt(args[1]);
+			int count = Integer.parseInt(args[2]);
+			int index = 0;
+			while (index < count)
+			{
+				if (index % (BATCH * 2) == 0 && index + BATCH <= count)
+				{
+					List<RunRecord> batch = new ArrayList<>(BATCH);
+					for (int i = 0; i < BATCH; i++)
+					{
+						batch.add(run(writer, index++));
+					}
+					if (!store.appendAll(batch))
+					{
+						System.exit(1);
+					}
+				}
+				else if (store.append(run(writer, index++)) < 0)
+				{
+					System.exit(1);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SpawnIndexTest
+{
+	private static final int[] SPAWNS = {
+		SpawnCode.pack(4, 4, 1, SpawnCode.NONE),
+		SpawnCode.pack(29, 4, 2, SpawnCode.NONE),
+		SpawnCode.pack(15, 1, 3, SpawnCode.NONE),
+	};
+	private static final int[] OTHER_SPAWNS = {
+		SpawnCode.pack(4, 4, 1, SpawnCode.NONE),
+		SpawnCode.pack(6, 2, 2, SpawnCode.NONE),
+	};
+	private static final int[] REINFORCEMENTS = {SpawnCode.pack(1, 17, 3, SpawnCode.NONE)};
+
+	@Test
+	public void predictsMostCommonSpawnSet()
+	{
+		SpawnIndex index = new SpawnIndex();
+		index.rebuild(runs(run(SPAWNS, REINFORCEMENTS), run(SPAWNS, new int[0]), run(OTHER_SPAWNS, new int[0])));
+
+		SpawnIndex.Prediction prediction = index.predict(3, new int[]{SPAWNS[0]}, true);
+		assertNotNull(prediction);
+		assertArrayEquals(SPAWNS, prediction.getSpawns());
+		assertArrayEquals(REINFORCEMENTS, prediction.getReinforcements());
+		assertEquals(2, prediction.getMatches());
+		assertEquals(3, prediction.getCandidates());
+		assertTrue(prediction.isMantimayhem3());
+
+		assertNull(index.predict(3, new int[]{SpawnCode.pack(20, 20, 5, SpawnCode.NONE)}, false));
+		assertNull(index.predict(4, new int[]{SPAWNS[0]}, false));
+	}
+
+	/**
+	 * Adding copies the wave index, so a lookup racing with it sees the index from before or after, never a mix.
+	 */
+	@Test
+	public void addPublishesNewIndex()
+	{
+		SpawnIndex index = new SpawnIndex();
+		index.rebuild(runs(run(SPAWNS, new int[0])));
+		index.add(run(OTHER_SPAWNS, REINFORCEMENTS));
+		index.add(run(OTHER_SPAWNS, REINFORCEMENTS));
+
+		SpawnIndex.Prediction prediction = index.predict(3, new int[]{SPAWNS[0]}, false);
+		assertArrayEquals(OTHER_SPAWNS, prediction.getSpawns());
+		assertArrayEquals(REINFORCEMENTS, prediction.getReinforcements());
+		assertEquals(2, prediction.getMatches());
+
+		// A rebuild replaces everything added before it
+		index.rebuild(runs(run(SPAWNS, new int[0])));
+		assertArrayEquals(SPAWNS, index.predict(3, new int[]{SPAWNS[0]}, false).getSpawns());
+		assertNull(index.predict(3, new int[]{OTHER_SPAWNS[1]}, false));
+	}
+
+	/**
+	 * Enough distinct spawn keys to grow the posting table several times, each of which must still be found.
+	 */
+	@Test
+	public void findsEveryKeyAfterGrowing()
+	{
+		SpawnIndex index = new SpawnIndex();
+		List<RunRecord> runs = new ArrayList<>();
+		Random random = new Random(33);
+		for (int i = 0; i < 500; i++)
+		{
+			runs.add(run(TestRuns.codes(random, 4), new int[0]));
+		}
+		index.rebuild(runs::forEach);
+
+		for (RunRecord run : runs)
+		{
+			int[] spawns = run.getWaves().get(0).getSpawns();
+			for (int code : spawns)
+			{
+				assertNotNull(Arrays.toString(spawns), index.predict(3, new int[]{code}, false));
+			}
+		}
+	}
+
+	private static Consumer<Consumer<RunRecord>> runs(RunRecord... runs)
+	{
+		return Arrays.asList(runs)::forEach;
+	}
+
+	private static RunRecord run(int[] spawns, int[] reinforcements)
+	{
+		WaveRecord wave = new WaveRecord(3, spawns, reinforcements, LosUrls.NO_PLAYER, LosUrls.NO_PLAYER,
+			reinforcements.length > 0 ? 10 : -1, false, 0, 0, new int[spawns.length + reinforcements.length]);
+		return new RunRecord(0, Collections.singletonList(wave), false);
+	}
+}
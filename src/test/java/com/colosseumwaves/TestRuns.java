@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2025, Will Ediger
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.colosseumwaves;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random but well-formed runs for tests and benchmarks, shaped like real archives: up to twelve waves a run, a few
+ * spawns and reinforcements a wave, manticores with any orb state the plugin can capture and player tiles on most
+ * captures.
+ */
+final class TestRuns
+{
+	private TestRuns()
+	{
+	}
+
+	static List<RunRecord> generate(int count, long seed)
+	{
+		Random random = new Random(seed);
+		List<RunRecord> runs = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			runs.add(run(random, 1_700_000_000_000L + i * 1000L));
+		}
+		return runs;
+	}
+
+	static RunRecord run(Random random, long startTime)
+	{
+		int waveCount = 1 + random.nextInt(RunAnalysis.MAX_WAVE);
+		List<WaveRecord> waves = new ArrayList<>(waveCount);
+		for (int wave = 1; wave <= waveCount; wave++)
+		{
+			waves.add(wave(random, wave));
+		}
+		return new RunRecord(startTime, waves, false);
+	}
+
+	static WaveRecord wave(Random random, int wave)
+	{
+		int[] spawns = codes(random, 2 + random.nextInt(5));
+		boolean reinforced = random.nextInt(4) != 0;
+		int[] reinforcements = reinforced ? codes(random, 1 + random.nextInt(4)) : new int[0];
+		int[] despawnTicks = new int[spawns.length + reinforcements.length];
+		for (int i = 0; i < despawnTicks.length; i++)
+		{
+			despawnTicks[i] = random.nextInt(8) == 0 ? -1 : 1 + random.nextInt(120);
+		}
+		return new WaveRecord(wave, spawns, reinforcements, player(random), player(random),
+			reinforced ? random.nextInt(RunAnalysis.MAX_REINFORCEMENT_TICK + 1) : -1, random.nextBoolean(),
+			random.nextInt(1 << 16), random.nextInt(4) == 0 ? 0 : 20 + random.nextInt(200), despawnTicks);
+	}
+
+	static int[] codes(Random random, int count)
+	{
+		int[] codes = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			codes[i] = code(random);
+		}
+		return codes;
+	}
+
+	/**
+	 * A spawn code on any arena tile, with a manticore state for manticores.
+	 */
+	static int code(Random random)
+	{
+		int type = 1 + random.nextInt(6);
+		int state = SpawnCode.NONE;
+		if (type == SpawnCode.MANTICORE)
+		{
+			// Orbs are captured in order, so a state never skips to a later orb
+			int[] orbs = new int[3];
+			int shown = random.nextInt(4);
+			for (int i = 0; i < shown; i++)
+			{
+				orbs[i] = SpawnCode.ORB_MAGIC + random.nextInt(3);
+			}
+			state = SpawnCode.manticoreState(random.nextBoolean(), orbs[0], orbs[1], orbs[2]);
+		}
+		return SpawnCode.pack(random.nextInt(ArenaMap.SIZE), random.nextInt(ArenaMap.SIZE), type, state);
+	}
+
+	static int player(Random random)
+	{
+		return random.nextInt(5) == 0
+			? LosUrls.NO_PLAYER
+			: LosUrls.encodePlayer(random.nextInt(ArenaMap.SIZE), random.nextInt(ArenaMap.SIZE));
+	}
+}